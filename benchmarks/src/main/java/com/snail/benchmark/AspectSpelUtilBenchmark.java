@@ -0,0 +1,98 @@
+package com.snail.benchmark;
+
+import com.snail.spel.SpelUtil;
+import com.snail.spel.aspect.AspectSpelUtil;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.benchmark
+ * @Description: AspectSpelUtil.generateSpelFunctionWithCondition 常量条件/需要计算的条件/条件不满足
+ * @date: 2026/10/18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AspectSpelUtilBenchmark {
+
+    private static final String KEY_EXPRESSION = "'lock:' + #userId";
+
+    private ProceedingJoinPoint joinPoint;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        Method method = AspectSpelUtilBenchmark.class.getDeclaredMethod("lock", String.class, Integer.class);
+        joinPoint = createJoinPoint(method, new Object[]{"u-1", 3});
+    }
+
+    @Benchmark
+    public Object literalCondition() {
+        SpelUtil.SpelFunction spelFunction = AspectSpelUtil.generateSpelFunctionWithCondition(joinPoint, "true");
+        return spelFunction == null ? null : spelFunction.getValue(KEY_EXPRESSION, String.class);
+    }
+
+    @Benchmark
+    public Object evaluatedCondition() {
+        SpelUtil.SpelFunction spelFunction = AspectSpelUtil.generateSpelFunctionWithCondition(joinPoint, "#count > 1");
+        return spelFunction == null ? null : spelFunction.getValue(KEY_EXPRESSION, String.class);
+    }
+
+    @Benchmark
+    public Object rejectedCondition() {
+        SpelUtil.SpelFunction spelFunction = AspectSpelUtil.generateSpelFunctionWithCondition(joinPoint, "#count > 10");
+        return spelFunction == null ? null : spelFunction.getValue(KEY_EXPRESSION, String.class);
+    }
+
+    public void lock(String userId, Integer count) {
+    }
+
+    /**
+     * 只实现AspectSpelUtil用到的方法
+     */
+    private static ProceedingJoinPoint createJoinPoint(Method method, Object[] args) {
+        ClassLoader classLoader = AspectSpelUtilBenchmark.class.getClassLoader();
+        MethodSignature signature = (MethodSignature) Proxy.newProxyInstance(
+            classLoader, new Class<?>[]{MethodSignature.class},
+            (proxy, invoked, invokeArgs) -> {
+                if ("getMethod".equals(invoked.getName())) {
+                    return method;
+                }
+                throw new UnsupportedOperationException(invoked.getName());
+            }
+        );
+        return (ProceedingJoinPoint) Proxy.newProxyInstance(
+            classLoader, new Class<?>[]{ProceedingJoinPoint.class},
+            (proxy, invoked, invokeArgs) -> {
+                switch (invoked.getName()) {
+                    case "getSignature":
+                        return signature;
+                    case "getArgs":
+                        return args.clone();
+                    default:
+                        throw new UnsupportedOperationException(invoked.getName());
+                }
+            }
+        );
+    }
+
+}
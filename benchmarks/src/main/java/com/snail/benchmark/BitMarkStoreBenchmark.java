@@ -0,0 +1,100 @@
+package com.snail.benchmark;
+
+import com.snail.bit.BitMarkQuery;
+import com.snail.bit.BitMarkStore;
+import com.snail.bit.BitMarkUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.benchmark
+ * @Description: 多标记位过滤 逐个对象isMark / 列式存储串行 / 列式存储并行
+ * @date: 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitMarkStoreBenchmark {
+
+    @Param({"100000", "5000000"})
+    private int size;
+
+    private List<Entity> entities;
+
+    private BitMarkStore store;
+
+    private BitMarkQuery query;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        entities = new ArrayList<>(size);
+        int[] marks = new int[size];
+        for (int i = 0; i < size; i++) {
+            marks[i] = random.nextInt(1 << BitMarkUtilBenchmark.Flag.values().length);
+            entities.add(new Entity(i, marks[i]));
+        }
+        store = BitMarkStore.fromIntMarks(marks);
+        query = BitMarkQuery.create()
+            .with(BitMarkUtilBenchmark.Flag.A)
+            .with(BitMarkUtilBenchmark.Flag.B)
+            .without(BitMarkUtilBenchmark.Flag.C);
+    }
+
+    @Benchmark
+    public List<Integer> objectLoop() {
+        List<Integer> ids = new ArrayList<>();
+        for (Entity entity : entities) {
+            int mark = entity.mark;
+            if (BitMarkUtil.isMark(mark, BitMarkUtilBenchmark.Flag.A)
+                && BitMarkUtil.isMark(mark, BitMarkUtilBenchmark.Flag.B)
+                && !BitMarkUtil.isMark(mark, BitMarkUtilBenchmark.Flag.C)) {
+                ids.add(entity.id);
+            }
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public int[] storeSequential() {
+        return store.find(query, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int[] storeParallel() {
+        return store.find(query, 0);
+    }
+
+    private static final class Entity {
+
+        private final int id;
+
+        private final int mark;
+
+        Entity(int id, int mark) {
+            this.id = id;
+            this.mark = mark;
+        }
+    }
+
+}
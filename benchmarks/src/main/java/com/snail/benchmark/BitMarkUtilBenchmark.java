@@ -0,0 +1,88 @@
+package com.snail.benchmark;
+
+import com.snail.bit.BitMarkUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.benchmark
+ * @Description: BitMarkUtil 创建/判断/添加/删除标记
+ * @date: 2026/10/18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitMarkUtilBenchmark {
+
+    private static final Flag[] FLAGS = Flag.values();
+
+    private List<Flag> flagList;
+
+    private int mark;
+
+    private BitMarkUtil.BitMarkFunction bitMarkFunction;
+
+    @Setup
+    public void setUp() {
+        flagList = Arrays.asList(Flag.A, Flag.C, Flag.E, Flag.G);
+        mark = BitMarkUtil.createMark(flagList);
+        bitMarkFunction = BitMarkUtil.generateBitMarkFunction(mark);
+    }
+
+    @Benchmark
+    public int createMark() {
+        return BitMarkUtil.createMark(flagList);
+    }
+
+    @Benchmark
+    public void isMark(Blackhole blackhole) {
+        for (Flag flag : FLAGS) {
+            blackhole.consume(BitMarkUtil.isMark(mark, flag));
+        }
+    }
+
+    @Benchmark
+    public int addAndDelMark() {
+        int result = mark;
+        for (Flag flag : FLAGS) {
+            result = BitMarkUtil.delMark(BitMarkUtil.addMark(result, flag), flag);
+        }
+        return result;
+    }
+
+    @Benchmark
+    public int bitMarkFunction() {
+        for (Flag flag : FLAGS) {
+            if (bitMarkFunction.isMark(flag)) {
+                bitMarkFunction.delMark(flag);
+            } else {
+                bitMarkFunction.addMark(flag);
+            }
+        }
+        return bitMarkFunction.getMark();
+    }
+
+    public enum Flag {
+        A, B, C, D, E, F, G, H
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.snail.benchmark;
+
+import com.snail.bit.BitMarkUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.benchmark
+ * @Description: 多线程修改同一个标记 synchronized加锁的BitMarkFunction / CAS的ConcurrentBitMarkFunction
+ * @date: 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class ConcurrentBitMarkBenchmark {
+
+    private static final BitMarkUtilBenchmark.Flag[] FLAGS = BitMarkUtilBenchmark.Flag.values();
+
+    private BitMarkUtil.BitMarkFunction lockedFunction;
+
+    private BitMarkUtil.ConcurrentBitMarkFunction concurrentFunction;
+
+    @Setup
+    public void setUp() {
+        lockedFunction = BitMarkUtil.generateBitMarkFunction(0);
+        concurrentFunction = BitMarkUtil.generateConcurrentBitMarkFunction(0L);
+    }
+
+    @Benchmark
+    public int locked() {
+        BitMarkUtilBenchmark.Flag flag = FLAGS[ThreadLocalRandom.current().nextInt(FLAGS.length)];
+        synchronized (lockedFunction) {
+            return lockedFunction.isMark(flag) ? lockedFunction.delMark(flag) : lockedFunction.addMark(flag);
+        }
+    }
+
+    @Benchmark
+    public long concurrent() {
+        BitMarkUtilBenchmark.Flag flag = FLAGS[ThreadLocalRandom.current().nextInt(FLAGS.length)];
+        long bit = BitMarkUtil.addMark(0L, flag);
+        return concurrentFunction.updateAndGet(mark -> mark ^ bit);
+    }
+
+    @Benchmark
+    public long concurrentAddDel() {
+        BitMarkUtilBenchmark.Flag flag = FLAGS[ThreadLocalRandom.current().nextInt(FLAGS.length)];
+        return concurrentFunction.isMark(flag) ? concurrentFunction.delMark(flag) : concurrentFunction.addMark(flag);
+    }
+
+}
@@ -0,0 +1,187 @@
+package com.snail.benchmark;
+
+import com.snail.lambda.CompactMap;
+import com.snail.lambda.IntObjectMap;
+import com.snail.lambda.LambdaUtil;
+import com.snail.lambda.MultiIndexBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.benchmark
+ * @Description: LambdaUtil.toMap/distinct 在不同列表大小和键基数下的表现, distinct区分串行/并行
+ * multiIndex对比多次遍历生成同样的三个索引, compactMap对比HashMap的生成和查找
+ * @date: 2026/10/18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LambdaUtilBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    /**
+     * 不同键的数量
+     */
+    @Param({"16", "65536", "1048576"})
+    private int cardinality;
+
+    private List<Item> items;
+
+    private Map<Integer, Item> hashMap;
+
+    private CompactMap<Integer, Item> compactMap;
+
+    private Integer[] lookupKeys;
+
+    private MultiIndexBuilder<Item> indexBuilder;
+
+    private MultiIndexBuilder.UniqueIndex<Item, Integer, Item> byId;
+
+    private MultiIndexBuilder.GroupIndex<Item, Long, Item> byValue;
+
+    private MultiIndexBuilder.DistinctIndex<Item, Integer> ids;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int key = random.nextInt(cardinality);
+            items.add(new Item(key, (long) key << 8));
+        }
+        hashMap = LambdaUtil.toMap(items, Item::getId);
+        compactMap = LambdaUtil.toCompactMap(items, Item::getId);
+        lookupKeys = new Integer[1024];
+        for (int i = 0; i < lookupKeys.length; i++) {
+            lookupKeys[i] = random.nextInt(cardinality);
+        }
+        indexBuilder = LambdaUtil.multiIndexBuilder();
+        byId = indexBuilder.unique(Item::getId);
+        byValue = indexBuilder.group(Item::getValue);
+        ids = indexBuilder.distinct(Item::getId);
+    }
+
+    @Benchmark
+    public Map<Integer, Item> toMap() {
+        return LambdaUtil.toMap(items, Item::getId);
+    }
+
+    @Benchmark
+    public Map<Integer, Item> toCompactMap() {
+        return LambdaUtil.toCompactMap(items, Item::getId);
+    }
+
+    @Benchmark
+    public int hashMapGet() {
+        int found = 0;
+        for (Integer key : lookupKeys) {
+            if (hashMap.get(key) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int compactMapGet() {
+        int found = 0;
+        for (Integer key : lookupKeys) {
+            if (compactMap.get(key) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public IntObjectMap<Item> toIntMap() {
+        return LambdaUtil.toIntMap(items, Item::getId);
+    }
+
+    @Benchmark
+    public List<Item> distinctByInt() {
+        return LambdaUtil.distinctByInt(items, Item::getId);
+    }
+
+    @Benchmark
+    public List<Item> distinctSequential() {
+        return LambdaUtil.distinct(items, Item::getId, false);
+    }
+
+    @Benchmark
+    public List<Item> distinctParallel() {
+        return LambdaUtil.distinct(items, Item::getId, true);
+    }
+
+    @Benchmark
+    public List<Item> distinctAuto() {
+        return LambdaUtil.distinctAuto(items, Item::getId);
+    }
+
+    @Benchmark
+    public Object multiPass() {
+        Map<Integer, Item> idMap = LambdaUtil.toMap(items, Item::getId);
+        Map<Long, List<Item>> valueMap = items.stream().collect(Collectors.groupingBy(Item::getValue));
+        Set<Integer> idSet = items.stream().map(Item::getId).collect(Collectors.toCollection(LinkedHashSet::new));
+        return new Object[]{idMap, valueMap, idSet};
+    }
+
+    @Benchmark
+    public Object multiIndex() {
+        MultiIndexBuilder.MultiIndex<Item> index = indexBuilder.build(items);
+        return new Object[]{index.get(byId), index.get(byValue), index.get(ids)};
+    }
+
+    @Benchmark
+    public Object multiIndexParallel() {
+        MultiIndexBuilder.MultiIndex<Item> index = indexBuilder.build(items, true);
+        return new Object[]{index.get(byId), index.get(byValue), index.get(ids)};
+    }
+
+    public static class Item {
+
+        private final Integer id;
+
+        private final Long value;
+
+        public Item(Integer id, Long value) {
+            this.id = id;
+            this.value = value;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public Long getValue() {
+            return value;
+        }
+    }
+
+}
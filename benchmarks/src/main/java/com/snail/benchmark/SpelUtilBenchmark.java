@@ -0,0 +1,157 @@
+package com.snail.benchmark;
+
+import com.snail.spel.SpelUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.benchmark
+ * @Description: SpelUtil.getValue 未缓存/已缓存, map上下文/方法上下文, 以及直接使用spring el的基准
+ * 以及生成缓存key时 模板(order:#{#userId}:#{#order.id}) 和 字符串拼接表达式 的对比
+ * @date: 2026/10/18
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpelUtilBenchmark {
+
+    /**
+     * 超过表达式缓存容量, 循环使用时每次都未命中缓存
+     */
+    private static final int COLD_EXPRESSION_COUNT = SpelUtil.DEFAULT_EXPRESSION_CACHE_CAPACITY * 2;
+
+    private static final String PROPERTY_EXPRESSION = "#order.name";
+
+    private static final String CALCULATE_EXPRESSION = "#order.id * 2 + #userId.length()";
+
+    private static final String CONCAT_KEY_EXPRESSION = "'order:' + #userId + ':' + #order.id";
+
+    private static final String TEMPLATE_KEY = "order:#{#userId}:#{#order.id}";
+
+    private final ExpressionParser parser = new SpelExpressionParser();
+
+    private String[] coldExpressions;
+
+    private int coldIndex;
+
+    private Map<String, Object> variableMap;
+
+    private Method method;
+
+    private Object[] args;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        coldExpressions = new String[COLD_EXPRESSION_COUNT];
+        for (int i = 0; i < COLD_EXPRESSION_COUNT; i++) {
+            coldExpressions[i] = "#order.id + " + i;
+        }
+        Order order = new Order(1L, "snail");
+        variableMap = new HashMap<>();
+        variableMap.put("userId", "u-1");
+        variableMap.put("order", order);
+        method = SpelUtilBenchmark.class.getDeclaredMethod("createOrder", String.class, Order.class);
+        args = new Object[]{"u-1", order};
+    }
+
+    @Benchmark
+    public Object mapContextCold() {
+        String expression = coldExpressions[coldIndex++ % COLD_EXPRESSION_COUNT];
+        return SpelUtil.generateSpelFunction(variableMap).getValue(expression, Long.class);
+    }
+
+    @Benchmark
+    public Object mapContextCachedProperty() {
+        return SpelUtil.generateSpelFunction(variableMap).getValue(PROPERTY_EXPRESSION, String.class);
+    }
+
+    @Benchmark
+    public Object mapContextCachedCalculate() {
+        return SpelUtil.generateSpelFunction(variableMap).getValue(CALCULATE_EXPRESSION, Long.class);
+    }
+
+    @Benchmark
+    public Object methodContextCachedProperty() {
+        return SpelUtil.generateSpelFunction(method, args).getValue(PROPERTY_EXPRESSION, String.class);
+    }
+
+    @Benchmark
+    public Object methodContextCachedCalculate() {
+        return SpelUtil.generateSpelFunction(method, args).getValue(CALCULATE_EXPRESSION, Long.class);
+    }
+
+    @Benchmark
+    public Object methodContextConcatKey() {
+        return SpelUtil.getValue(CONCAT_KEY_EXPRESSION, method, args, String.class);
+    }
+
+    @Benchmark
+    public Object methodContextTemplateKey() {
+        return SpelUtil.getTemplateValue(TEMPLATE_KEY, method, args);
+    }
+
+    /**
+     * 直接拼接(下限)
+     */
+    @Benchmark
+    public Object rawConcatKey() {
+        return "order:" + args[0] + ':' + ((Order) args[1]).getId();
+    }
+
+    /**
+     * 每次解析表达式并创建上下文(未使用工具类的写法)
+     */
+    @Benchmark
+    public Object plainSpelProperty() {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.setVariables(variableMap);
+        return parser.parseExpression(PROPERTY_EXPRESSION).getValue(context, String.class);
+    }
+
+    public Order createOrder(String userId, Order order) {
+        return order;
+    }
+
+    public static class Order {
+
+        private final Long id;
+
+        private final String name;
+
+        public Order(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+}
@@ -0,0 +1,365 @@
+package com.snail.bit;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.bit
+ * @Description: 任意位数的标记(long[]存储), 用于超过64个常量的枚举
+ * 添加/删除/判断/并集/交集都在原数组上操作, 不创建对象(非线程安全)
+ * @date: 2026/10/18
+ */
+public final class BitMark {
+
+    private static final int ADDRESS_BITS_PER_WORD = 6;
+
+    /**
+     * 标记位数
+     */
+    private final int width;
+
+    private final long[] words;
+
+    /**
+     * @param width 标记位数
+     */
+    public BitMark(int width) {
+        if (width < 0) {
+            throw new IllegalArgumentException("标记位数不能小于0: " + width);
+        }
+        this.width = width;
+        this.words = new long[wordCount(width)];
+    }
+
+    /**
+     * 创建能容纳枚举所有常量的空标记
+     *
+     * @param enumClass 枚举类型
+     * @param <E>       枚举类型
+     * @return 标记
+     */
+    public static <E extends Enum<E>> BitMark of(Class<E> enumClass) {
+        return new BitMark(enumClass.getEnumConstants().length);
+    }
+
+    /**
+     * 创建标记
+     *
+     * @param enumClass 枚举类型
+     * @param enums     枚举列表
+     * @param <E>       枚举类型
+     * @return 标记
+     */
+    public static <E extends Enum<E>> BitMark of(Class<E> enumClass, Collection<E> enums) {
+        BitMark bitMark = of(enumClass);
+        if (enums != null) {
+            for (E next : enums) {
+                bitMark.addMark(next);
+            }
+        }
+        return bitMark;
+    }
+
+    /**
+     * 从int标记创建
+     *
+     * @param width 标记位数
+     * @param mark  int标记
+     * @return 标记
+     */
+    public static BitMark fromIntMark(int width, int mark) {
+        return fromLongMark(width, mark & 0xFFFFFFFFL);
+    }
+
+    /**
+     * 从long标记创建
+     *
+     * @param width 标记位数
+     * @param mark  long标记
+     * @return 标记
+     * @throws ArithmeticException 标记超出位数
+     */
+    public static BitMark fromLongMark(int width, long mark) {
+        BitMark bitMark = new BitMark(width);
+        if (mark == 0) {
+            return bitMark;
+        }
+        if (width < Long.SIZE && (mark >>> width) != 0) {
+            throw new ArithmeticException("标记超出" + width + "位: " + Long.toBinaryString(mark));
+        }
+        bitMark.words[0] = mark;
+        return bitMark;
+    }
+
+    /**
+     * 是否为true的标记位
+     *
+     * @param markEnum 标记枚举
+     */
+    public boolean isMark(Enum<?> markEnum) {
+        if (markEnum == null) {
+            return false;
+        }
+        int index = markEnum.ordinal();
+        return index < width && (words[index >>> ADDRESS_BITS_PER_WORD] & (1L << index)) != 0;
+    }
+
+    /**
+     * 添加标记
+     *
+     * @param markEnum 标记枚举
+     * @return this
+     * @throws ArithmeticException 枚举序号超出位数
+     */
+    public BitMark addMark(Enum<?> markEnum) {
+        if (markEnum != null) {
+            int index = checkedIndex(markEnum);
+            words[index >>> ADDRESS_BITS_PER_WORD] |= 1L << index;
+        }
+        return this;
+    }
+
+    /**
+     * 删除标记
+     *
+     * @param markEnum 标记枚举
+     * @return this
+     */
+    public BitMark delMark(Enum<?> markEnum) {
+        if (markEnum != null && markEnum.ordinal() < width) {
+            int index = markEnum.ordinal();
+            words[index >>> ADDRESS_BITS_PER_WORD] &= ~(1L << index);
+        }
+        return this;
+    }
+
+    /**
+     * 并集(结果写入当前标记)
+     *
+     * @param other 另一个标记
+     * @return this
+     * @throws ArithmeticException 另一个标记有超出当前位数的标记位
+     */
+    public BitMark union(BitMark other) {
+        checkFits(other);
+        int count = Math.min(words.length, other.words.length);
+        for (int i = 0; i < count; i++) {
+            words[i] |= other.words[i];
+        }
+        return this;
+    }
+
+    /**
+     * 交集(结果写入当前标记)
+     *
+     * @param other 另一个标记
+     * @return this
+     */
+    public BitMark intersect(BitMark other) {
+        int count = Math.min(words.length, other.words.length);
+        for (int i = 0; i < count; i++) {
+            words[i] &= other.words[i];
+        }
+        for (int i = count; i < words.length; i++) {
+            words[i] = 0;
+        }
+        return this;
+    }
+
+    /**
+     * 差集 删除另一个标记中为true的标记位(结果写入当前标记)
+     *
+     * @param other 另一个标记
+     * @return this
+     */
+    public BitMark andNot(BitMark other) {
+        int count = Math.min(words.length, other.words.length);
+        for (int i = 0; i < count; i++) {
+            words[i] &= ~other.words[i];
+        }
+        return this;
+    }
+
+    /**
+     * 是否包含另一个标记的全部标记位
+     *
+     * @param other 另一个标记
+     */
+    public boolean containsAll(BitMark other) {
+        for (int i = 0; i < other.words.length; i++) {
+            long word = i < words.length ? words[i] : 0;
+            if ((other.words[i] & ~word) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否和另一个标记有相同的标记位
+     *
+     * @param other 另一个标记
+     */
+    public boolean intersects(BitMark other) {
+        int count = Math.min(words.length, other.words.length);
+        for (int i = 0; i < count; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 为true的标记位数量
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 清空所有标记
+     *
+     * @return this
+     */
+    public BitMark clear() {
+        Arrays.fill(words, 0);
+        return this;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * 转换为long标记
+     *
+     * @return long标记
+     * @throws ArithmeticException 存在超过64位的标记位
+     */
+    public long toLongMark() {
+        for (int i = 1; i < words.length; i++) {
+            if (words[i] != 0) {
+                throw new ArithmeticException("标记超出long的位数: " + this);
+            }
+        }
+        return words.length == 0 ? 0 : words[0];
+    }
+
+    /**
+     * 转换为int标记
+     *
+     * @return int标记
+     * @throws ArithmeticException 存在超过32位的标记位
+     */
+    public int toIntMark() {
+        return BitMarkUtil.toIntMark(toLongMark());
+    }
+
+    /**
+     * 转换为EnumSet
+     *
+     * @param enumClass 枚举类型
+     * @param <E>       枚举类型
+     * @return EnumSet
+     */
+    public <E extends Enum<E>> EnumSet<E> toEnumSet(Class<E> enumClass) {
+        EnumSet<E> enumSet = EnumSet.noneOf(enumClass);
+        E[] constants = enumClass.getEnumConstants();
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                int index = (i << ADDRESS_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+                if (index < constants.length) {
+                    enumSet.add(constants[index]);
+                }
+                word &= word - 1;
+            }
+        }
+        return enumSet;
+    }
+
+    /**
+     * 标记数组的副本(第i个long存储第 i*64 ~ i*64+63 位)
+     */
+    public long[] toLongArray() {
+        return words.clone();
+    }
+
+    public BitMark copy() {
+        BitMark copy = new BitMark(width);
+        System.arraycopy(words, 0, copy.words, 0, words.length);
+        return copy;
+    }
+
+    private int checkedIndex(Enum<?> markEnum) {
+        int index = markEnum.ordinal();
+        if (index >= width) {
+            throw new ArithmeticException("枚举" + markEnum + "的序号" + index + "超出标记位数" + width);
+        }
+        return index;
+    }
+
+    private void checkFits(BitMark other) {
+        for (int i = words.length; i < other.words.length; i++) {
+            if (other.words[i] != 0) {
+                throw new ArithmeticException("标记超出" + width + "位: " + other);
+            }
+        }
+        if (other.width > width && words.length > 0) {
+            long highWord = other.words[words.length - 1];
+            int usedBits = width - ((words.length - 1) << ADDRESS_BITS_PER_WORD);
+            if (usedBits < Long.SIZE && (highWord >>> usedBits) != 0) {
+                throw new ArithmeticException("标记超出" + width + "位: " + other);
+            }
+        }
+    }
+
+    private static int wordCount(int width) {
+        return (width + Long.SIZE - 1) >>> ADDRESS_BITS_PER_WORD;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BitMark)) {
+            return false;
+        }
+        BitMark that = (BitMark) o;
+        return width == that.width && Arrays.equals(words, that.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * width + Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(width);
+        for (int i = width - 1; i >= 0; i--) {
+            builder.append((words[i >>> ADDRESS_BITS_PER_WORD] & (1L << i)) != 0 ? '1' : '0');
+        }
+        return builder.toString();
+    }
+
+}
@@ -0,0 +1,228 @@
+package com.snail.bit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.bit
+ * @Description: 标记列的编解码, 按枚举名称记录标记位, 枚举调整顺序/新增常量后仍然可以正确解码
+ * 每个标记只占用 ceil(常量数/8) 个字节, 适合批量存储/加载大量标记
+ * <p>
+ * 格式: 标识(int), 名称数(short), (名称长度(short), 名称)..., 每个标记的字节数(byte), 标记数(int), 标记(小端)...
+ * @date: 2026/10/18
+ */
+public final class BitMarkCodec<E extends Enum<E>> {
+
+    private static final int SERIAL_COOKIE = 0x534E4243;
+
+    private final EnumMaskTable<E> maskTable;
+
+    /**
+     * 数据中有已经删除的枚举常量时是否抛出异常(false时忽略这些标记位)
+     */
+    private final boolean strict;
+
+    private BitMarkCodec(EnumMaskTable<E> maskTable, boolean strict) {
+        if (maskTable.width() > Long.SIZE) {
+            throw new IllegalArgumentException("枚举" + maskTable.getEnumClass().getName() + "超过64个常量");
+        }
+        this.maskTable = maskTable;
+        this.strict = strict;
+    }
+
+    /**
+     * 创建编解码器, 数据中有已经删除的枚举常量时抛出异常
+     *
+     * @param enumClass 枚举类型
+     * @param <E>       枚举类型
+     * @return 编解码器
+     */
+    public static <E extends Enum<E>> BitMarkCodec<E> of(Class<E> enumClass) {
+        return new BitMarkCodec<>(EnumMaskTable.of(enumClass), true);
+    }
+
+    /**
+     * 创建编解码器, 忽略已经删除的枚举常量
+     *
+     * @param enumClass 枚举类型
+     * @param <E>       枚举类型
+     * @return 编解码器
+     */
+    public static <E extends Enum<E>> BitMarkCodec<E> lenient(Class<E> enumClass) {
+        return new BitMarkCodec<>(EnumMaskTable.of(enumClass), false);
+    }
+
+    /**
+     * 编码后的字节数
+     *
+     * @param markCount 标记数
+     * @return 字节数
+     */
+    public int encodedSize(int markCount) {
+        int size = 4 + 2 + 1 + 4;
+        for (int i = 0; i < maskTable.width(); i++) {
+            size += 2 + maskTable.constant(i).name().getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size + markCount * bytesPerMark();
+    }
+
+    /**
+     * 编码long标记列
+     *
+     * @param marks long标记
+     * @return 字节数组
+     */
+    public byte[] encode(long[] marks) {
+        ByteBuffer buffer = ByteBuffer.allocate(encodedSize(marks.length));
+        encode(marks, buffer);
+        return buffer.array();
+    }
+
+    /**
+     * 编码int标记列
+     *
+     * @param marks int标记
+     * @return 字节数组
+     */
+    public byte[] encode(int[] marks) {
+        long[] longMarks = new long[marks.length];
+        for (int i = 0; i < marks.length; i++) {
+            longMarks[i] = BitMarkUtil.toLongMark(marks[i]);
+        }
+        return encode(longMarks);
+    }
+
+    /**
+     * 编码到buffer的当前位置
+     *
+     * @param marks  long标记
+     * @param buffer 剩余空间需要不小于encodedSize(marks.length)
+     */
+    public void encode(long[] marks, ByteBuffer buffer) {
+        int bytesPerMark = bytesPerMark();
+        long allMask = maskTable.allMask();
+        buffer.putInt(SERIAL_COOKIE);
+        buffer.putShort((short) maskTable.width());
+        for (int i = 0; i < maskTable.width(); i++) {
+            byte[] name = maskTable.constant(i).name().getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) name.length);
+            buffer.put(name);
+        }
+        buffer.put((byte) bytesPerMark);
+        buffer.putInt(marks.length);
+        for (long mark : marks) {
+            if ((mark & ~allMask) != 0) {
+                throw new ArithmeticException("标记超出枚举" + maskTable.getEnumClass().getName() + "的常量数: " + Long.toBinaryString(mark));
+            }
+            for (int b = 0; b < bytesPerMark; b++) {
+                buffer.put((byte) (mark >>> (b << 3)));
+            }
+        }
+    }
+
+    /**
+     * 解码为long标记列
+     *
+     * @param bytes encode得到的字节数组
+     * @return long标记
+     */
+    public long[] decode(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * 从buffer的当前位置解码为long标记列
+     *
+     * @param buffer buffer
+     * @return long标记
+     */
+    public long[] decode(ByteBuffer buffer) {
+        int cookie = buffer.getInt();
+        if (cookie != SERIAL_COOKIE) {
+            throw new IllegalArgumentException("不是BitMarkCodec的编码数据: " + Integer.toHexString(cookie));
+        }
+        int nameCount = buffer.getShort() & 0xFFFF;
+        long[] storedBits = new long[nameCount];
+        boolean identity = nameCount <= maskTable.width();
+        for (int i = 0; i < nameCount; i++) {
+            byte[] nameBytes = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(nameBytes);
+            String name = new String(nameBytes, StandardCharsets.UTF_8);
+            E constant = findConstant(name);
+            if (constant == null && strict) {
+                throw new IllegalStateException("枚举" + maskTable.getEnumClass().getName() + "中没有常量: " + name);
+            }
+            storedBits[i] = constant == null ? 0L : maskTable.bit(constant);
+            identity &= constant != null && constant.ordinal() == i;
+        }
+        int bytesPerMark = buffer.get();
+        int count = buffer.getInt();
+        long[] marks = new long[count];
+        if (identity) {
+            for (int i = 0; i < count; i++) {
+                marks[i] = readMark(buffer, bytesPerMark);
+            }
+            return marks;
+        }
+//        顺序有变化时按字节查表转换, 每个字节一次查表
+        long[][] remapTable = new long[bytesPerMark][256];
+        for (int bit = 0; bit < nameCount; bit++) {
+            long[] byteTable = remapTable[bit >>> 3];
+            int byteBit = 1 << (bit & 7);
+            for (int value = 0; value < 256; value++) {
+                if ((value & byteBit) != 0) {
+                    byteTable[value] |= storedBits[bit];
+                }
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            long mark = 0L;
+            for (int b = 0; b < bytesPerMark; b++) {
+                mark |= remapTable[b][buffer.get() & 0xFF];
+            }
+            marks[i] = mark;
+        }
+        return marks;
+    }
+
+    /**
+     * 解码为int标记列
+     *
+     * @param bytes encode得到的字节数组
+     * @return int标记
+     * @throws ArithmeticException 存在超过32位的标记位
+     */
+    public int[] decodeIntMarks(byte[] bytes) {
+        long[] longMarks = decode(bytes);
+        int[] marks = new int[longMarks.length];
+        for (int i = 0; i < longMarks.length; i++) {
+            marks[i] = BitMarkUtil.toIntMark(longMarks[i]);
+        }
+        return marks;
+    }
+
+    private int bytesPerMark() {
+        return Math.max(1, (maskTable.width() + 7) >>> 3);
+    }
+
+    private static long readMark(ByteBuffer buffer, int bytesPerMark) {
+        long mark = 0L;
+        for (int b = 0; b < bytesPerMark; b++) {
+            mark |= (buffer.get() & 0xFFL) << (b << 3);
+        }
+        return mark;
+    }
+
+    private E findConstant(String name) {
+        for (int i = 0; i < maskTable.width(); i++) {
+            if (maskTable.constant(i).name().equals(name)) {
+                return maskTable.constant(i);
+            }
+        }
+        return null;
+    }
+
+}
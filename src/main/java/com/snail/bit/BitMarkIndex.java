@@ -0,0 +1,309 @@
+package com.snail.bit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.bit
+ * @Description: 按标记位的倒排索引 每个枚举常量一个压缩位图(标记为true的行号), 适合稀疏的标记
+ * 序列化时按枚举名称保存, 枚举调整顺序后仍然可以正确加载(非线程安全)
+ * <p>
+ * 例: BitMarkIndex.of(Flag.class, store).query(BitMarkQuery.create().with(A).without(C))
+ * @date: 2026/10/18
+ */
+public final class BitMarkIndex<E extends Enum<E>> {
+
+    private static final int SERIAL_COOKIE = 0x534E4931;
+
+    private final Class<E> enumClass;
+
+    private final E[] constants;
+
+    /**
+     * 下标为枚举序号
+     */
+    private final CompressedBitmap[] bitmaps;
+
+    public BitMarkIndex(Class<E> enumClass) {
+        this.enumClass = enumClass;
+        this.constants = enumClass.getEnumConstants();
+        this.bitmaps = new CompressedBitmap[constants.length];
+        for (int i = 0; i < bitmaps.length; i++) {
+            bitmaps[i] = new CompressedBitmap();
+        }
+    }
+
+    /**
+     * 从列式存储创建索引
+     *
+     * @param enumClass 枚举类型
+     * @param store     列式存储
+     * @param <E>       枚举类型
+     * @return 索引
+     */
+    public static <E extends Enum<E>> BitMarkIndex<E> of(Class<E> enumClass, BitMarkStore store) {
+        BitMarkIndex<E> index = new BitMarkIndex<>(enumClass);
+        for (int row = 0; row < store.size(); row++) {
+            index.addMarks(row, store.getMark(row));
+        }
+        return index;
+    }
+
+    /**
+     * 从int标记列创建索引, 下标为行号
+     *
+     * @param enumClass 枚举类型
+     * @param intMarks  int标记
+     * @param <E>       枚举类型
+     * @return 索引
+     */
+    public static <E extends Enum<E>> BitMarkIndex<E> of(Class<E> enumClass, int[] intMarks) {
+        BitMarkIndex<E> index = new BitMarkIndex<>(enumClass);
+        for (int row = 0; row < intMarks.length; row++) {
+            index.addMarks(row, BitMarkUtil.toLongMark(intMarks[row]));
+        }
+        return index;
+    }
+
+    public void addMark(int row, E markEnum) {
+        bitmaps[markEnum.ordinal()].add(row);
+    }
+
+    public void delMark(int row, E markEnum) {
+        bitmaps[markEnum.ordinal()].remove(row);
+    }
+
+    public boolean isMark(int row, E markEnum) {
+        return bitmaps[markEnum.ordinal()].contains(row);
+    }
+
+    /**
+     * 行的标记变化时增量更新, 只修改变化的标记位
+     *
+     * @param row     行号
+     * @param oldMark 原标记
+     * @param newMark 新标记
+     */
+    public void update(int row, long oldMark, long newMark) {
+        long changed = oldMark ^ newMark;
+        while (changed != 0) {
+            int ordinal = Long.numberOfTrailingZeros(changed);
+            changed &= changed - 1;
+            if (ordinal >= bitmaps.length) {
+                throw new ArithmeticException("标记位" + ordinal + "超出枚举" + enumClass.getName() + "的常量数");
+            }
+            if ((newMark & (1L << ordinal)) != 0) {
+                bitmaps[ordinal].add(row);
+            } else {
+                bitmaps[ordinal].remove(row);
+            }
+        }
+    }
+
+    /**
+     * 删除行的所有标记
+     *
+     * @param row 行号
+     */
+    public void removeRow(int row) {
+        for (CompressedBitmap bitmap : bitmaps) {
+            bitmap.remove(row);
+        }
+    }
+
+    /**
+     * 标记为true的行(只读, 不要修改返回的位图)
+     *
+     * @param markEnum 标记枚举
+     * @return 位图
+     */
+    public CompressedBitmap getBitmap(E markEnum) {
+        return bitmaps[markEnum.ordinal()];
+    }
+
+    /**
+     * 标记为true的行数
+     *
+     * @param markEnum 标记枚举
+     * @return 行数
+     */
+    public long cardinality(E markEnum) {
+        return bitmaps[markEnum.ordinal()].cardinality();
+    }
+
+    /**
+     * 查询满足条件的行, 至少需要一个为true的标记
+     *
+     * @param query 查询条件
+     * @return 行号位图
+     */
+    public CompressedBitmap query(BitMarkQuery query) {
+        long requiredMask = query.getRequiredMask();
+        if (requiredMask == 0) {
+            throw new IllegalArgumentException("索引查询至少需要一个为true的标记");
+        }
+        CompressedBitmap first = bitmapOf(Long.numberOfTrailingZeros(requiredMask));
+        CompressedBitmap result = first;
+        requiredMask &= requiredMask - 1;
+        while (requiredMask != 0 && !result.isEmpty()) {
+            result = result.and(bitmapOf(Long.numberOfTrailingZeros(requiredMask)));
+            requiredMask &= requiredMask - 1;
+        }
+        long forbiddenMask = query.getForbiddenMask();
+        while (forbiddenMask != 0 && !result.isEmpty()) {
+            result = result.andNot(bitmapOf(Long.numberOfTrailingZeros(forbiddenMask)));
+            forbiddenMask &= forbiddenMask - 1;
+        }
+//        不返回索引内部的位图
+        return result == first ? result.copy() : result;
+    }
+
+    /**
+     * 满足条件的行数
+     *
+     * @param query 查询条件
+     * @return 行数
+     */
+    public long count(BitMarkQuery query) {
+        long requiredMask = query.getRequiredMask();
+        if (Long.bitCount(requiredMask) == 2 && query.getForbiddenMask() == 0) {
+            int first = Long.numberOfTrailingZeros(requiredMask);
+            int second = 63 - Long.numberOfLeadingZeros(requiredMask);
+            return bitmapOf(first).andCardinality(bitmapOf(second));
+        }
+        if (Long.bitCount(requiredMask) == 1 && query.getForbiddenMask() == 0) {
+            return bitmapOf(Long.numberOfTrailingZeros(requiredMask)).cardinality();
+        }
+        return query(query).cardinality();
+    }
+
+    /**
+     * 压缩所有位图, 建议在序列化之前调用
+     *
+     * @return this
+     */
+    public BitMarkIndex<E> runOptimize() {
+        for (CompressedBitmap bitmap : bitmaps) {
+            bitmap.runOptimize();
+        }
+        return this;
+    }
+
+    /**
+     * 序列化后的字节数
+     */
+    public int serializedSizeInBytes() {
+        int bytes = 4 + 4;
+        for (int i = 0; i < constants.length; i++) {
+            bytes += 2 + constants[i].name().getBytes(StandardCharsets.UTF_8).length + bitmaps[i].serializedSizeInBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * 序列化到buffer的当前位置 格式: 标识, 常量数, (名称长度, 名称, 位图)...
+     *
+     * @param buffer 剩余空间需要不小于serializedSizeInBytes()
+     */
+    public void serialize(ByteBuffer buffer) {
+        buffer.putInt(SERIAL_COOKIE);
+        buffer.putInt(constants.length);
+        for (int i = 0; i < constants.length; i++) {
+            byte[] name = constants[i].name().getBytes(StandardCharsets.UTF_8);
+            buffer.putShort((short) name.length);
+            buffer.put(name);
+            bitmaps[i].serialize(buffer);
+        }
+    }
+
+    /**
+     * 从buffer的当前位置反序列化, 按名称对应枚举常量, 已经删除的常量会被忽略
+     *
+     * @param enumClass 枚举类型
+     * @param buffer    buffer
+     * @param <E>       枚举类型
+     * @return 索引
+     */
+    public static <E extends Enum<E>> BitMarkIndex<E> deserialize(Class<E> enumClass, ByteBuffer buffer) {
+        int cookie = buffer.getInt();
+        if (cookie != SERIAL_COOKIE) {
+            throw new IllegalArgumentException("不是BitMarkIndex的序列化数据: " + Integer.toHexString(cookie));
+        }
+        BitMarkIndex<E> index = new BitMarkIndex<>(enumClass);
+        int count = buffer.getInt();
+        for (int i = 0; i < count; i++) {
+            byte[] name = new byte[buffer.getShort() & 0xFFFF];
+            buffer.get(name);
+            CompressedBitmap bitmap = CompressedBitmap.deserialize(buffer);
+            E constant = findConstant(index.constants, new String(name, StandardCharsets.UTF_8));
+            if (constant != null) {
+                index.bitmaps[constant.ordinal()] = bitmap;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 写入文件
+     *
+     * @param path 文件路径(覆盖)
+     * @throws IOException 写入失败
+     */
+    public void writeTo(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(serializedSizeInBytes());
+        serialize(buffer);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(
+            path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING
+        )) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * 内存映射文件并加载索引, 启动时不需要重新扫描标记
+     *
+     * @param enumClass 枚举类型
+     * @param path      writeTo写入的文件
+     * @param <E>       枚举类型
+     * @return 索引
+     * @throws IOException 读取失败
+     */
+    public static <E extends Enum<E>> BitMarkIndex<E> load(Class<E> enumClass, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return deserialize(enumClass, buffer);
+        }
+    }
+
+    private void addMarks(int row, long mark) {
+        update(row, 0L, mark);
+    }
+
+    private CompressedBitmap bitmapOf(int ordinal) {
+        if (ordinal >= bitmaps.length) {
+            throw new ArithmeticException("标记位" + ordinal + "超出枚举" + enumClass.getName() + "的常量数");
+        }
+        return bitmaps[ordinal];
+    }
+
+    private static <E extends Enum<E>> E findConstant(E[] constants, String name) {
+        for (E constant : constants) {
+            if (constant.name().equals(name)) {
+                return constant;
+            }
+        }
+        return null;
+    }
+
+}
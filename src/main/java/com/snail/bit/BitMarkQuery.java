@@ -0,0 +1,130 @@
+package com.snail.bit;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.bit
+ * @Description: 多标记位查询条件(不可变), 预先合并成掩码, 每个标记只需要一次比较
+ * <p>
+ * 例: BitMarkQuery.create().with(A).with(B).without(C) 表示A和B为true且C为false
+ * @date: 2026/10/18
+ */
+public final class BitMarkQuery {
+
+    private static final BitMarkQuery EMPTY = new BitMarkQuery(0L, 0L);
+
+    /**
+     * 需要为true的标记位
+     */
+    private final long requiredMask;
+
+    /**
+     * 需要为false的标记位
+     */
+    private final long forbiddenMask;
+
+    /**
+     * 需要检查的标记位(required | forbidden)
+     */
+    private final long checkMask;
+
+    private BitMarkQuery(long requiredMask, long forbiddenMask) {
+        if ((requiredMask & forbiddenMask) != 0) {
+            throw new IllegalArgumentException("同一个标记位不能同时要求为true和false: " + Long.toBinaryString(requiredMask & forbiddenMask));
+        }
+        this.requiredMask = requiredMask;
+        this.forbiddenMask = forbiddenMask;
+        this.checkMask = requiredMask | forbiddenMask;
+    }
+
+    /**
+     * 空条件(匹配所有标记)
+     */
+    public static BitMarkQuery create() {
+        return EMPTY;
+    }
+
+    /**
+     * 直接使用掩码创建条件
+     *
+     * @param requiredMask  需要为true的标记位
+     * @param forbiddenMask 需要为false的标记位
+     * @return 查询条件
+     */
+    public static BitMarkQuery of(long requiredMask, long forbiddenMask) {
+        return new BitMarkQuery(requiredMask, forbiddenMask);
+    }
+
+    /**
+     * 增加需要为true的标记
+     *
+     * @param markEnum 标记枚举
+     * @return 新的查询条件
+     */
+    public BitMarkQuery with(Enum markEnum) {
+        return new BitMarkQuery(BitMarkUtil.addMark(requiredMask, markEnum), forbiddenMask);
+    }
+
+    /**
+     * 增加需要为false的标记
+     *
+     * @param markEnum 标记枚举
+     * @return 新的查询条件
+     */
+    public BitMarkQuery without(Enum markEnum) {
+        return new BitMarkQuery(requiredMask, BitMarkUtil.addMark(forbiddenMask, markEnum));
+    }
+
+    /**
+     * 标记是否满足条件
+     *
+     * @param mark long标记
+     */
+    public boolean matches(long mark) {
+        return (mark & checkMask) == requiredMask;
+    }
+
+    /**
+     * 标记是否满足条件
+     *
+     * @param mark int标记
+     */
+    public boolean matches(int mark) {
+        return matches(BitMarkUtil.toLongMark(mark));
+    }
+
+    public long getRequiredMask() {
+        return requiredMask;
+    }
+
+    public long getForbiddenMask() {
+        return forbiddenMask;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof BitMarkQuery)) {
+            return false;
+        }
+        BitMarkQuery that = (BitMarkQuery) o;
+        return requiredMask == that.requiredMask && forbiddenMask == that.forbiddenMask;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(requiredMask) + Long.hashCode(forbiddenMask);
+    }
+
+    @Override
+    public String toString() {
+        return "BitMarkQuery{" +
+            "requiredMask=" + Long.toBinaryString(requiredMask) +
+            ", forbiddenMask=" + Long.toBinaryString(forbiddenMask) +
+            '}';
+    }
+
+}
@@ -0,0 +1,337 @@
+package com.snail.bit;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.bit
+ * @Description: 按行号存储标记的列式存储(long[], 最多64位), 用于大量对象的标记过滤
+ * 查询时每行只做一次掩码比较, 返回行号数组不装箱, 数据量大时可以拆分到ForkJoinPool并行
+ * 写操作非线程安全, 并行查询期间不要修改
+ * @date: 2026/10/18
+ */
+public final class BitMarkStore {
+
+    /**
+     * 默认超过这个行数时并行查询
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+    private static final int MIN_LEAF_SIZE = 1 << 12;
+
+    private static final int[] EMPTY_ROWS = new int[0];
+
+    private long[] marks;
+
+    /**
+     * 行数(最大行号 + 1)
+     */
+    private int size;
+
+    public BitMarkStore() {
+        this(16);
+    }
+
+    /**
+     * @param initialCapacity 初始容量(行数)
+     */
+    public BitMarkStore(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("初始容量不能小于0: " + initialCapacity);
+        }
+        this.marks = new long[initialCapacity];
+    }
+
+    /**
+     * 从已有的int标记列创建, 下标为行号
+     *
+     * @param intMarks int标记
+     * @return 列式存储
+     */
+    public static BitMarkStore fromIntMarks(int[] intMarks) {
+        BitMarkStore store = new BitMarkStore(intMarks.length);
+        for (int i = 0; i < intMarks.length; i++) {
+            store.marks[i] = BitMarkUtil.toLongMark(intMarks[i]);
+        }
+        store.size = intMarks.length;
+        return store;
+    }
+
+    /**
+     * 从已有的long标记列创建(复制), 下标为行号
+     *
+     * @param longMarks long标记
+     * @return 列式存储
+     */
+    public static BitMarkStore fromLongMarks(long[] longMarks) {
+        BitMarkStore store = new BitMarkStore(0);
+        store.marks = longMarks.clone();
+        store.size = longMarks.length;
+        return store;
+    }
+
+    /**
+     * 行数(最大行号 + 1)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 获取行的标记, 没有写入过的行为0
+     *
+     * @param row 行号
+     * @return long标记
+     */
+    public long getMark(int row) {
+        checkRow(row);
+        return row < size ? marks[row] : 0L;
+    }
+
+    /**
+     * 设置行的标记
+     *
+     * @param row  行号
+     * @param mark long标记
+     */
+    public void setMark(int row, long mark) {
+        ensureRow(row);
+        marks[row] = mark;
+    }
+
+    public boolean isMark(int row, Enum markEnum) {
+        return BitMarkUtil.isMark(getMark(row), markEnum);
+    }
+
+    /**
+     * 添加标记
+     *
+     * @param row      行号
+     * @param markEnum 标记枚举
+     * @return 行的新标记
+     */
+    public long addMark(int row, Enum markEnum) {
+        long bit = BitMarkUtil.addMark(0L, markEnum);
+        if (bit == 0L) {
+            checkRow(row);
+            return row < size ? marks[row] : 0L;
+        }
+        ensureRow(row);
+        return marks[row] |= bit;
+    }
+
+    /**
+     * 删除标记
+     *
+     * @param row      行号
+     * @param markEnum 标记枚举
+     * @return 行的新标记
+     */
+    public long delMark(int row, Enum markEnum) {
+        checkRow(row);
+        if (row >= size) {
+            return 0L;
+        }
+        return marks[row] = BitMarkUtil.delMark(marks[row], markEnum);
+    }
+
+    /**
+     * 批量添加标记
+     *
+     * @param rows     行号
+     * @param markEnum 标记枚举
+     */
+    public void addMark(int[] rows, Enum markEnum) {
+        long bit = BitMarkUtil.addMark(0L, markEnum);
+        if (bit == 0L || rows.length == 0) {
+            return;
+        }
+        int maxRow = -1;
+        for (int row : rows) {
+            checkRow(row);
+            maxRow = Math.max(maxRow, row);
+        }
+        ensureRow(maxRow);
+        for (int row : rows) {
+            marks[row] |= bit;
+        }
+    }
+
+    /**
+     * 批量删除标记
+     *
+     * @param rows     行号
+     * @param markEnum 标记枚举
+     */
+    public void delMark(int[] rows, Enum markEnum) {
+        long keepMask = BitMarkUtil.delMark(-1L, markEnum);
+        if (keepMask == -1L) {
+            return;
+        }
+        for (int row : rows) {
+            checkRow(row);
+            if (row < size) {
+                marks[row] &= keepMask;
+            }
+        }
+    }
+
+    /**
+     * 满足条件的行数
+     *
+     * @param query 查询条件
+     * @return 行数
+     */
+    public int count(BitMarkQuery query) {
+        long checkMask = query.getRequiredMask() | query.getForbiddenMask();
+        long requiredMask = query.getRequiredMask();
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if ((marks[i] & checkMask) == requiredMask) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 查询满足条件的行号, 行数超过DEFAULT_PARALLEL_THRESHOLD时并行
+     *
+     * @param query 查询条件
+     * @return 升序的行号
+     */
+    public int[] find(BitMarkQuery query) {
+        return find(query, DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * 查询满足条件的行号
+     *
+     * @param query             查询条件
+     * @param parallelThreshold 行数达到这个值时使用ForkJoinPool并行, 小于等于0时总是并行
+     * @return 升序的行号
+     */
+    public int[] find(BitMarkQuery query, int parallelThreshold) {
+        return find(query, parallelThreshold, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * 查询满足条件的行号, 指定并行度(按并行度拆分, 实际在公共池中执行)
+     */
+    int[] find(BitMarkQuery query, int parallelThreshold, int parallelism) {
+        if (size == 0) {
+            return EMPTY_ROWS;
+        }
+        if (size < parallelThreshold || parallelism <= 1) {
+            return scan(marks, query, 0, size);
+        }
+        int leafSize = Math.max(MIN_LEAF_SIZE, size / (parallelism * 4));
+        int[][] leafRows = new int[(size + leafSize - 1) / leafSize][];
+        ForkJoinPool.commonPool().invoke(new FindTask(marks, query, size, leafSize, leafRows, 0, leafRows.length));
+//        各段的结果最后一次性拼接, 不在每一层拆分时复制
+        int count = 0;
+        for (int[] rows : leafRows) {
+            count += rows.length;
+        }
+        if (count == 0) {
+            return EMPTY_ROWS;
+        }
+        int[] rows = new int[count];
+        int offset = 0;
+        for (int[] leaf : leafRows) {
+            System.arraycopy(leaf, 0, rows, offset, leaf.length);
+            offset += leaf.length;
+        }
+        return rows;
+    }
+
+    /**
+     * 标记列的副本, 下标为行号
+     */
+    public long[] toLongArray() {
+        return Arrays.copyOf(marks, size);
+    }
+
+    private static int[] scan(long[] marks, BitMarkQuery query, int from, int to) {
+        long checkMask = query.getRequiredMask() | query.getForbiddenMask();
+        long requiredMask = query.getRequiredMask();
+        int[] rows = new int[Math.min(to - from, 16)];
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if ((marks[i] & checkMask) == requiredMask) {
+                if (count == rows.length) {
+                    rows = Arrays.copyOf(rows, Math.min(to - from, count << 1));
+                }
+                rows[count++] = i;
+            }
+        }
+        return count == rows.length ? rows : Arrays.copyOf(rows, count);
+    }
+
+    private void ensureRow(int row) {
+        checkRow(row);
+        if (row >= marks.length) {
+            int newCapacity = Math.max(row + 1, marks.length + (marks.length >> 1));
+            marks = Arrays.copyOf(marks, newCapacity);
+        }
+        if (row >= size) {
+            size = row + 1;
+        }
+    }
+
+    private static void checkRow(int row) {
+        if (row < 0) {
+            throw new IndexOutOfBoundsException("行号不能小于0: " + row);
+        }
+    }
+
+    /**
+     * 每段的结果写入leafRows的对应位置
+     */
+    @SuppressWarnings("serial")
+    private static final class FindTask extends RecursiveAction {
+
+        private final long[] marks;
+
+        private final BitMarkQuery query;
+
+        private final int size;
+
+        private final int leafSize;
+
+        private final int[][] leafRows;
+
+        private final int fromLeaf;
+
+        private final int toLeaf;
+
+        FindTask(long[] marks, BitMarkQuery query, int size, int leafSize, int[][] leafRows, int fromLeaf, int toLeaf) {
+            this.marks = marks;
+            this.query = query;
+            this.size = size;
+            this.leafSize = leafSize;
+            this.leafRows = leafRows;
+            this.fromLeaf = fromLeaf;
+            this.toLeaf = toLeaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (toLeaf - fromLeaf == 1) {
+                int from = fromLeaf * leafSize;
+                leafRows[fromLeaf] = scan(marks, query, from, Math.min(size, from + leafSize));
+                return;
+            }
+            int middle = (fromLeaf + toLeaf) >>> 1;
+            invokeAll(
+                new FindTask(marks, query, size, leafSize, leafRows, fromLeaf, middle),
+                new FindTask(marks, query, size, leafSize, leafRows, middle, toLeaf)
+            );
+        }
+    }
+
+}
@@ -1,13 +1,17 @@
 package com.snail.bit;
 
 import java.util.Collection;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.function.LongUnaryOperator;
 
 /**
  * @version V1.0
  * @author: csz
  * @Title
  * @Package: com.snail.bit
- * @Description: 适合标记位不多的情况，最多32位
+ * @Description: 适合标记位不多的情况，int标记最多32位, long标记最多64位, 更多的标记位使用BitMark
+ * 枚举序号超出标记的位数时(int标记的读取/添加/删除都一样)抛出ArithmeticException, 不会静默写到低位
  * @date: 2020/10/29
  */
 public enum BitMarkUtil {
@@ -19,6 +23,7 @@ public enum BitMarkUtil {
      * @param enums 枚举数组
      * @param <E>   枚举类型
      * @return mark
+     * @throws ArithmeticException 枚举序号超出32位
      */
     public static <E extends Enum> int createMark(Collection<E> enums) {
 
@@ -32,7 +37,7 @@ public enum BitMarkUtil {
             if (next == null) {
                 continue;
             }
-            mark |= (1 << next.ordinal());
+            mark |= intBit(next);
         }
 
         return mark;
@@ -44,9 +49,10 @@ public enum BitMarkUtil {
      *
      * @param mark     标记
      * @param markEnum 标记枚举
+     * @throws ArithmeticException 枚举序号超出32位
      */
     public static boolean isMark(int mark, Enum markEnum) {
-        return markEnum != null && (mark & (1 << markEnum.ordinal())) != 0;
+        return markEnum != null && (mark & intBit(markEnum)) != 0;
     }
 
     /**
@@ -54,12 +60,13 @@ public enum BitMarkUtil {
      *
      * @param mark     标记
      * @param markEnum 标记枚举
+     * @throws ArithmeticException 枚举序号超出32位
      */
     public static int delMark(int mark, Enum markEnum) {
         if (markEnum == null) {
             return mark;
         }
-        return mark & (~(1 << markEnum.ordinal()));
+        return mark & ~intBit(markEnum);
     }
 
     /**
@@ -67,12 +74,204 @@ public enum BitMarkUtil {
      *
      * @param mark     标记
      * @param markEnum 标记枚举
+     * @throws ArithmeticException 枚举序号超出32位
      */
     public static int addMark(int mark, Enum markEnum) {
         if (markEnum == null) {
             return mark;
         }
-        return mark | (1 << markEnum.ordinal());
+        return mark | intBit(markEnum);
+    }
+
+    /**
+     * 创建一个long mark数字
+     *
+     * @param enums 枚举数组
+     * @param <E>   枚举类型
+     * @return mark
+     * @throws ArithmeticException 枚举序号超出64位
+     */
+    public static <E extends Enum> long createLongMark(Collection<E> enums) {
+
+        if (enums == null || enums.size() == 0) {
+            return 0L;
+        }
+
+        long mark = 0L;
+
+        for (E next : enums) {
+            if (next == null) {
+                continue;
+            }
+            mark |= longBit(next);
+        }
+
+        return mark;
+
+    }
+
+    /**
+     * 是否为true的标记位
+     *
+     * @param mark     long标记
+     * @param markEnum 标记枚举
+     * @throws ArithmeticException 枚举序号超出64位
+     */
+    public static boolean isMark(long mark, Enum markEnum) {
+        return markEnum != null && (mark & longBit(markEnum)) != 0;
+    }
+
+    /**
+     * 删除标记
+     *
+     * @param mark     long标记
+     * @param markEnum 标记枚举
+     * @throws ArithmeticException 枚举序号超出64位
+     */
+    public static long delMark(long mark, Enum markEnum) {
+        if (markEnum == null) {
+            return mark;
+        }
+        return mark & ~longBit(markEnum);
+    }
+
+    /**
+     * 添加标记
+     *
+     * @param mark     long标记
+     * @param markEnum 标记枚举
+     * @throws ArithmeticException 枚举序号超出64位
+     */
+    public static long addMark(long mark, Enum markEnum) {
+        if (markEnum == null) {
+            return mark;
+        }
+        return mark | longBit(markEnum);
+    }
+
+    /**
+     * 掩码中的标记位是否全部为true(掩码可以用EnumMaskTable预先生成)
+     *
+     * @param mark 标记
+     * @param mask 掩码
+     */
+    public static boolean isMarkAll(long mark, long mask) {
+        return (mark & mask) == mask;
+    }
+
+    /**
+     * 掩码中是否有为true的标记位(掩码可以用EnumMaskTable预先生成)
+     *
+     * @param mark 标记
+     * @param mask 掩码
+     */
+    public static boolean isMarkAny(long mark, long mask) {
+        return (mark & mask) != 0;
+    }
+
+    /**
+     * 并集
+     *
+     * @param mark  long标记
+     * @param other 另一个long标记
+     */
+    public static long union(long mark, long other) {
+        return mark | other;
+    }
+
+    /**
+     * 交集
+     *
+     * @param mark  long标记
+     * @param other 另一个long标记
+     */
+    public static long intersect(long mark, long other) {
+        return mark & other;
+    }
+
+    /**
+     * long标记转int标记
+     *
+     * @param mark long标记
+     * @return int标记
+     * @throws ArithmeticException 存在超过32位的标记位
+     */
+    public static int toIntMark(long mark) {
+        if ((mark >>> Integer.SIZE) != 0) {
+            throw new ArithmeticException("标记超出int的位数: " + Long.toBinaryString(mark));
+        }
+        return (int) mark;
+    }
+
+    /**
+     * int标记转long标记(不做符号扩展, 第32位仍然是第32位)
+     *
+     * @param mark int标记
+     * @return long标记
+     */
+    public static long toLongMark(int mark) {
+        return mark & 0xFFFFFFFFL;
+    }
+
+    /**
+     * int标记转EnumSet
+     *
+     * @param mark      int标记
+     * @param enumClass 枚举类型
+     * @param <E>       枚举类型
+     * @return EnumSet
+     */
+    public static <E extends Enum<E>> EnumSet<E> toEnumSet(int mark, Class<E> enumClass) {
+        return toEnumSet(toLongMark(mark), enumClass);
+    }
+
+    /**
+     * long标记转EnumSet
+     *
+     * @param mark      long标记
+     * @param enumClass 枚举类型
+     * @param <E>       枚举类型
+     * @return EnumSet
+     */
+    public static <E extends Enum<E>> EnumSet<E> toEnumSet(long mark, Class<E> enumClass) {
+        EnumSet<E> enumSet = EnumSet.noneOf(enumClass);
+        E[] constants = enumClass.getEnumConstants();
+        while (mark != 0) {
+            int index = Long.numberOfTrailingZeros(mark);
+            if (index < constants.length) {
+                enumSet.add(constants[index]);
+            }
+            mark &= mark - 1;
+        }
+        return enumSet;
+    }
+
+    /**
+     * 创建任意位数的标记
+     *
+     * @param enumClass 枚举类型
+     * @param enums     枚举列表
+     * @param <E>       枚举类型
+     * @return 标记
+     */
+    public static <E extends Enum<E>> BitMark createBitMark(Class<E> enumClass, Collection<E> enums) {
+        return BitMark.of(enumClass, enums);
+    }
+
+    private static int intBit(Enum markEnum) {
+        int index = markEnum.ordinal();
+        if (index >= Integer.SIZE) {
+            throw new ArithmeticException("枚举" + markEnum + "的序号" + index + "超出int的位数, 请使用long标记或BitMark");
+        }
+        return 1 << index;
+    }
+
+    private static long longBit(Enum markEnum) {
+        int index = markEnum.ordinal();
+        if (index >= Long.SIZE) {
+            throw new ArithmeticException("枚举" + markEnum + "的序号" + index + "超出long的位数, 请使用BitMark");
+        }
+        return 1L << index;
     }
 
     /**
@@ -91,6 +290,22 @@ public enum BitMarkUtil {
         return new BitMarkFunction(mark);
     }
 
+    /**
+     * 生成线程安全的位标记方法工具
+     * @param enums 枚举列表
+     */
+    public static <E extends Enum> ConcurrentBitMarkFunction generateConcurrentBitMarkFunction(Collection<E> enums) {
+        return generateConcurrentBitMarkFunction(createLongMark(enums));
+    }
+
+    /**
+     * 生成线程安全的位标记方法工具
+     * @param mark long标记
+     */
+    public static ConcurrentBitMarkFunction generateConcurrentBitMarkFunction(long mark) {
+        return new ConcurrentBitMarkFunction(mark);
+    }
+
     public static final class BitMarkFunction {
 
         private int mark;
@@ -118,4 +333,151 @@ public enum BitMarkUtil {
         }
     }
 
+    /**
+     * 线程安全的位标记方法工具(long标记), 多个线程同时修改标记时使用CAS, 不加锁也不会丢失更新
+     */
+    public static final class ConcurrentBitMarkFunction {
+
+        private static final AtomicLongFieldUpdater<ConcurrentBitMarkFunction> MARK_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(ConcurrentBitMarkFunction.class, "mark");
+
+        private volatile long mark;
+
+        public ConcurrentBitMarkFunction(long mark) {
+            this.mark = mark;
+        }
+
+        public boolean isMark(Enum markEnum) {
+            return BitMarkUtil.isMark(mark, markEnum);
+        }
+
+        /**
+         * 是否满足条件
+         *
+         * @param query 查询条件
+         */
+        public boolean matches(BitMarkQuery query) {
+            return query.matches(mark);
+        }
+
+        /**
+         * 添加标记
+         *
+         * @param markEnum 标记枚举
+         * @return 添加后的标记
+         */
+        public long addMark(Enum markEnum) {
+            return addMarks(BitMarkUtil.addMark(0L, markEnum));
+        }
+
+        /**
+         * 删除标记
+         *
+         * @param markEnum 标记枚举
+         * @return 删除后的标记
+         */
+        public long delMark(Enum markEnum) {
+            return delMarks(BitMarkUtil.addMark(0L, markEnum));
+        }
+
+        /**
+         * 原子的添加多个标记
+         *
+         * @param mask 需要添加的标记位
+         * @return 添加后的标记
+         */
+        public long addMarks(long mask) {
+            long current;
+            do {
+                current = mark;
+                if ((current | mask) == current) {
+                    return current;
+                }
+            } while (!MARK_UPDATER.compareAndSet(this, current, current | mask));
+            return current | mask;
+        }
+
+        /**
+         * 原子的删除多个标记
+         *
+         * @param mask 需要删除的标记位
+         * @return 删除后的标记
+         */
+        public long delMarks(long mask) {
+            long current;
+            do {
+                current = mark;
+                if ((current & mask) == 0) {
+                    return current;
+                }
+            } while (!MARK_UPDATER.compareAndSet(this, current, current & ~mask));
+            return current & ~mask;
+        }
+
+        /**
+         * 标记等于expect时设置为update
+         *
+         * @param expect 期望的标记
+         * @param update 新标记
+         * @return 是否设置成功
+         */
+        public boolean compareAndSetMarks(long expect, long update) {
+            return MARK_UPDATER.compareAndSet(this, expect, update);
+        }
+
+        /**
+         * 满足条件时原子的添加和删除标记(例: 只有A为true且C为false时, 添加B删除A)
+         *
+         * @param query   条件
+         * @param addMask 需要添加的标记位
+         * @param delMask 需要删除的标记位
+         * @return 是否满足条件并完成修改
+         */
+        public boolean compareAndSetMarks(BitMarkQuery query, long addMask, long delMask) {
+            long current;
+            long update;
+            do {
+                current = mark;
+                if (!query.matches(current)) {
+                    return false;
+                }
+                update = (current | addMask) & ~delMask;
+            } while (current != update && !MARK_UPDATER.compareAndSet(this, current, update));
+            return true;
+        }
+
+        /**
+         * 原子的更新标记(更新方法可能被调用多次, 不要有副作用)
+         *
+         * @param updateFun 更新方法
+         * @return 更新前的标记
+         */
+        public long getAndUpdate(LongUnaryOperator updateFun) {
+            return MARK_UPDATER.getAndUpdate(this, updateFun);
+        }
+
+        /**
+         * 原子的更新标记(更新方法可能被调用多次, 不要有副作用)
+         *
+         * @param updateFun 更新方法
+         * @return 更新后的标记
+         */
+        public long updateAndGet(LongUnaryOperator updateFun) {
+            return MARK_UPDATER.updateAndGet(this, updateFun);
+        }
+
+        public long getMark() {
+            return mark;
+        }
+
+        /**
+         * int标记
+         *
+         * @throws ArithmeticException 存在超过32位的标记位
+         */
+        public int getIntMark() {
+            return BitMarkUtil.toIntMark(mark);
+        }
+    }
+
 }
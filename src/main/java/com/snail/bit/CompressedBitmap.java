@@ -0,0 +1,366 @@
+package com.snail.bit;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.bit
+ * @Description: 压缩位图(roaring的分桶方式), 按高16位分桶, 每个桶根据稀疏程度使用数组/位图/区间容器
+ * 用于存储非负的行号, and/or/andNot返回新的位图, 不修改原位图(非线程安全)
+ * @date: 2026/10/18
+ */
+public final class CompressedBitmap {
+
+    /**
+     * 序列化格式标识
+     */
+    private static final int SERIAL_COOKIE = 0x534E4231;
+
+    private char[] keys;
+
+    private Container[] containers;
+
+    private int size;
+
+    public CompressedBitmap() {
+        this(new char[4], new Container[4], 0);
+    }
+
+    private CompressedBitmap(char[] keys, Container[] containers, int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    /**
+     * 创建位图
+     *
+     * @param values 行号
+     * @return 位图
+     */
+    public static CompressedBitmap of(int... values) {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        for (int value : values) {
+            bitmap.add(value);
+        }
+        return bitmap;
+    }
+
+    /**
+     * 添加行号
+     *
+     * @param value 行号
+     * @return this
+     */
+    public CompressedBitmap add(int value) {
+        checkValue(value);
+        char high = (char) (value >>> 16);
+        int index = Arrays.binarySearch(keys, 0, size, high);
+        if (index >= 0) {
+            containers[index] = containers[index].add((char) value);
+        } else {
+            insert(-index - 1, high, new Container.ArrayContainer().add((char) value));
+        }
+        return this;
+    }
+
+    /**
+     * 删除行号
+     *
+     * @param value 行号
+     * @return this
+     */
+    public CompressedBitmap remove(int value) {
+        if (value < 0) {
+            return this;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        if (index >= 0) {
+            Container container = containers[index].remove((char) value);
+            if (container.cardinality() == 0) {
+                delete(index);
+            } else {
+                containers[index] = container;
+            }
+        }
+        return this;
+    }
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, (char) (value >>> 16));
+        return index >= 0 && containers[index].contains((char) value);
+    }
+
+    /**
+     * 行号数量(按容器累加, 不展开行号)
+     */
+    public long cardinality() {
+        long cardinality = 0;
+        for (int i = 0; i < size; i++) {
+            cardinality += containers[i].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 交集
+     *
+     * @param other 另一个位图
+     * @return 新的位图
+     */
+    public CompressedBitmap and(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap(
+            new char[Math.max(Math.min(size, other.size), 1)], new Container[Math.max(Math.min(size, other.size), 1)], 0
+        );
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = containers[i].and(other.containers[j]);
+                if (container.cardinality() > 0) {
+                    result.append(keys[i], container);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 并集
+     *
+     * @param other 另一个位图
+     * @return 新的位图
+     */
+    public CompressedBitmap or(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap(
+            new char[Math.max(size + other.size, 1)], new Container[Math.max(size + other.size, 1)], 0
+        );
+        int i = 0;
+        int j = 0;
+        while (i < size || j < other.size) {
+            if (j >= other.size || (i < size && keys[i] < other.keys[j])) {
+                result.append(keys[i], containers[i].copy());
+                i++;
+            } else if (i >= size || keys[i] > other.keys[j]) {
+                result.append(other.keys[j], other.containers[j].copy());
+                j++;
+            } else {
+                result.append(keys[i], containers[i].or(other.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 差集 在当前位图且不在另一个位图中的行号
+     *
+     * @param other 另一个位图
+     * @return 新的位图
+     */
+    public CompressedBitmap andNot(CompressedBitmap other) {
+        CompressedBitmap result = new CompressedBitmap(new char[Math.max(size, 1)], new Container[Math.max(size, 1)], 0);
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < other.size && other.keys[j] < keys[i]) {
+                j++;
+            }
+            Container container = j < other.size && other.keys[j] == keys[i]
+                ? containers[i].andNot(other.containers[j])
+                : containers[i].copy();
+            if (container.cardinality() > 0) {
+                result.append(keys[i], container);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 交集的行号数量(不生成交集位图)
+     *
+     * @param other 另一个位图
+     * @return 行号数量
+     */
+    public long andCardinality(CompressedBitmap other) {
+        long cardinality = 0;
+        int i = 0;
+        int j = 0;
+        while (i < size && j < other.size) {
+            if (keys[i] < other.keys[j]) {
+                i++;
+            } else if (keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                cardinality += containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return cardinality;
+    }
+
+    /**
+     * 按升序遍历行号
+     *
+     * @param consumer 行号处理
+     */
+    public void forEach(IntConsumer consumer) {
+        int[] buffer = new int[1 << 16];
+        for (int i = 0; i < size; i++) {
+            int count = containers[i].fill(buffer, 0, keys[i] << 16);
+            for (int k = 0; k < count; k++) {
+                consumer.accept(buffer[k]);
+            }
+        }
+    }
+
+    /**
+     * 升序的行号数组
+     */
+    public int[] toArray() {
+        int[] values = new int[Math.toIntExact(cardinality())];
+        int offset = 0;
+        for (int i = 0; i < size; i++) {
+            offset = containers[i].fill(values, offset, keys[i] << 16);
+        }
+        return values;
+    }
+
+    /**
+     * 每个容器转换为占用空间最小的形态(连续的行号转换为区间), 建议在序列化之前调用
+     *
+     * @return this
+     */
+    public CompressedBitmap runOptimize() {
+        for (int i = 0; i < size; i++) {
+            containers[i] = containers[i].runOptimize();
+        }
+        return this;
+    }
+
+    public CompressedBitmap copy() {
+        Container[] copyContainers = new Container[Math.max(size, 1)];
+        for (int i = 0; i < size; i++) {
+            copyContainers[i] = containers[i].copy();
+        }
+        return new CompressedBitmap(Arrays.copyOf(keys, Math.max(size, 1)), copyContainers, size);
+    }
+
+    /**
+     * 序列化后的字节数
+     */
+    public int serializedSizeInBytes() {
+        int bytes = 4 + 4 + size * 2;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].serializedSize();
+        }
+        return bytes;
+    }
+
+    /**
+     * 序列化到buffer的当前位置
+     *
+     * @param buffer 剩余空间需要不小于serializedSizeInBytes()
+     */
+    public void serialize(ByteBuffer buffer) {
+        buffer.putInt(SERIAL_COOKIE);
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putChar(keys[i]);
+            containers[i].writeTo(buffer);
+        }
+    }
+
+    /**
+     * 从buffer的当前位置反序列化(可以是FileChannel.map得到的MappedByteBuffer), 容器按块复制, 不逐个添加行号
+     *
+     * @param buffer buffer
+     * @return 位图
+     */
+    public static CompressedBitmap deserialize(ByteBuffer buffer) {
+        int cookie = buffer.getInt();
+        if (cookie != SERIAL_COOKIE) {
+            throw new IllegalArgumentException("不是CompressedBitmap的序列化数据: " + Integer.toHexString(cookie));
+        }
+        int size = buffer.getInt();
+        char[] keys = new char[Math.max(size, 1)];
+        Container[] containers = new Container[Math.max(size, 1)];
+        for (int i = 0; i < size; i++) {
+            keys[i] = buffer.getChar();
+            containers[i] = Container.readFrom(buffer);
+        }
+        return new CompressedBitmap(keys, containers, size);
+    }
+
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size << 1);
+            containers = Arrays.copyOf(containers, size << 1);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private void append(char key, Container container) {
+        insert(size, key, container);
+    }
+
+    private void delete(int index) {
+        System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+        containers[--size] = null;
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IndexOutOfBoundsException("行号不能小于0: " + value);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompressedBitmap)) {
+            return false;
+        }
+        return Arrays.equals(toArray(), ((CompressedBitmap) o).toArray());
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(toArray());
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedBitmap{" +
+            "cardinality=" + cardinality() +
+            ", containerCount=" + size +
+            ", serializedSize=" + serializedSizeInBytes() +
+            '}';
+    }
+
+}
@@ -0,0 +1,571 @@
+package com.snail.bit;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.bit
+ * @Description: CompressedBitmap中存储低16位的容器, 稀疏时为有序数组, 稠密时为位图, 连续时为区间
+ * 修改后可能返回新的容器(类型转换), 调用方需要使用返回值
+ * @date: 2026/10/18
+ */
+abstract class Container {
+
+    /**
+     * 数组容器的最大元素数, 超过后位图更省空间
+     */
+    static final int MAX_ARRAY_SIZE = 4096;
+
+    static final byte ARRAY = 1;
+
+    static final byte BITMAP = 2;
+
+    static final byte RUN = 3;
+
+    abstract Container add(char value);
+
+    abstract Container remove(char value);
+
+    abstract boolean contains(char value);
+
+    abstract int cardinality();
+
+    /**
+     * 按升序写入完整的值(高16位为high)
+     *
+     * @return 写入后的下标
+     */
+    abstract int fill(int[] target, int offset, int high);
+
+    abstract BitmapContainer toBitmap();
+
+    abstract Container copy();
+
+    abstract byte type();
+
+    abstract int serializedSize();
+
+    abstract void writeTo(ByteBuffer buffer);
+
+    /**
+     * 选择占用空间最小的容器类型
+     */
+    Container runOptimize() {
+        BitmapContainer bitmap = toBitmap();
+        int runCount = bitmap.runCount();
+        int cardinality = bitmap.cardinality;
+        int runSize = 4 + runCount * 4;
+        int arraySize = 4 + cardinality * 2;
+        if (runSize < Math.min(arraySize, BitmapContainer.SERIALIZED_SIZE)) {
+            return type() == RUN ? this : bitmap.toRun(runCount);
+        }
+        if (cardinality <= MAX_ARRAY_SIZE) {
+            return type() == ARRAY ? this : bitmap.toArray();
+        }
+        return bitmap;
+    }
+
+    Container and(Container other) {
+        if (this instanceof ArrayContainer) {
+            return ((ArrayContainer) this).filter(other, true);
+        }
+        if (other instanceof ArrayContainer) {
+            return ((ArrayContainer) other).filter(this, true);
+        }
+        long[] words = toBitmap().words.clone();
+        long[] otherWords = other.toBitmap().words;
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= otherWords[i];
+        }
+        return BitmapContainer.of(words).shrink();
+    }
+
+    Container or(Container other) {
+        if (this instanceof ArrayContainer && other instanceof ArrayContainer
+            && cardinality() + other.cardinality() <= MAX_ARRAY_SIZE) {
+            return ((ArrayContainer) this).merge((ArrayContainer) other);
+        }
+        long[] words = toBitmap().words.clone();
+        long[] otherWords = other.toBitmap().words;
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= otherWords[i];
+        }
+        return BitmapContainer.of(words);
+    }
+
+    Container andNot(Container other) {
+        if (this instanceof ArrayContainer) {
+            return ((ArrayContainer) this).filter(other, false);
+        }
+        long[] words = toBitmap().words.clone();
+        long[] otherWords = other.toBitmap().words;
+        for (int i = 0; i < words.length; i++) {
+            words[i] &= ~otherWords[i];
+        }
+        return BitmapContainer.of(words).shrink();
+    }
+
+    /**
+     * 交集的元素数(不生成容器)
+     */
+    int andCardinality(Container other) {
+        if (this instanceof ArrayContainer) {
+            return ((ArrayContainer) this).countIn(other);
+        }
+        if (other instanceof ArrayContainer) {
+            return ((ArrayContainer) other).countIn(this);
+        }
+        long[] words = toBitmap().words;
+        long[] otherWords = other.toBitmap().words;
+        int count = 0;
+        for (int i = 0; i < words.length; i++) {
+            count += Long.bitCount(words[i] & otherWords[i]);
+        }
+        return count;
+    }
+
+    static Container readFrom(ByteBuffer buffer) {
+        byte type = buffer.get();
+        switch (type) {
+            case ARRAY: {
+                int size = buffer.getInt();
+                char[] values = new char[size];
+                buffer.asCharBuffer().get(values);
+                buffer.position(buffer.position() + size * 2);
+                return new ArrayContainer(values, size);
+            }
+            case BITMAP: {
+                long[] words = new long[BitmapContainer.WORD_COUNT];
+                buffer.asLongBuffer().get(words);
+                buffer.position(buffer.position() + BitmapContainer.WORD_COUNT * 8);
+                return BitmapContainer.of(words);
+            }
+            case RUN: {
+                int runCount = buffer.getInt();
+                char[] runs = new char[runCount * 2];
+                buffer.asCharBuffer().get(runs);
+                buffer.position(buffer.position() + runs.length * 2);
+                return new RunContainer(runs, runCount);
+            }
+            default:
+                throw new IllegalArgumentException("未知的容器类型: " + type);
+        }
+    }
+
+    /**
+     * 有序数组容器
+     */
+    static final class ArrayContainer extends Container {
+
+        private char[] values;
+
+        private int size;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        Container add(char value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (size >= MAX_ARRAY_SIZE) {
+                return toBitmap().add(value);
+            }
+            index = -index - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(MAX_ARRAY_SIZE, Math.max(4, size << 1)));
+            }
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(values, 0, size, value);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, size - index - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        int fill(int[] target, int offset, int high) {
+            for (int i = 0; i < size; i++) {
+                target[offset++] = high | values[i];
+            }
+            return offset;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            long[] words = new long[BitmapContainer.WORD_COUNT];
+            for (int i = 0; i < size; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return new BitmapContainer(words, size);
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(size, 1)), size);
+        }
+
+        @Override
+        byte type() {
+            return ARRAY;
+        }
+
+        @Override
+        int serializedSize() {
+            return 1 + 4 + size * 2;
+        }
+
+        @Override
+        void writeTo(ByteBuffer buffer) {
+            buffer.put(ARRAY);
+            buffer.putInt(size);
+            for (int i = 0; i < size; i++) {
+                buffer.putChar(values[i]);
+            }
+        }
+
+        /**
+         * 保留(keep=true)或删除(keep=false)在另一个容器中的值
+         */
+        Container filter(Container other, boolean keep) {
+            char[] result = new char[size];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (other.contains(values[i]) == keep) {
+                    result[count++] = values[i];
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        int countIn(Container other) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (other.contains(values[i])) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        ArrayContainer merge(ArrayContainer other) {
+            char[] result = new char[size + other.size];
+            int i = 0;
+            int j = 0;
+            int count = 0;
+            while (i < size && j < other.size) {
+                char a = values[i];
+                char b = other.values[j];
+                if (a < b) {
+                    result[count++] = a;
+                    i++;
+                } else if (a > b) {
+                    result[count++] = b;
+                    j++;
+                } else {
+                    result[count++] = a;
+                    i++;
+                    j++;
+                }
+            }
+            while (i < size) {
+                result[count++] = values[i++];
+            }
+            while (j < other.size) {
+                result[count++] = other.values[j++];
+            }
+            return new ArrayContainer(result, count);
+        }
+    }
+
+    /**
+     * 位图容器(固定1024个long)
+     */
+    static final class BitmapContainer extends Container {
+
+        static final int WORD_COUNT = 1 << 10;
+
+        static final int SERIALIZED_SIZE = 1 + WORD_COUNT * 8;
+
+        private final long[] words;
+
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        static BitmapContainer of(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            return new BitmapContainer(words, cardinality);
+        }
+
+        @Override
+        Container add(char value) {
+            long before = words[value >>> 6];
+            long after = before | (1L << value);
+            if (before != after) {
+                words[value >>> 6] = after;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long before = words[value >>> 6];
+            long after = before & ~(1L << value);
+            if (before != after) {
+                words[value >>> 6] = after;
+                cardinality--;
+                if (cardinality <= MAX_ARRAY_SIZE) {
+                    return toArray();
+                }
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        int fill(int[] target, int offset, int high) {
+            for (int i = 0; i < WORD_COUNT; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    target[offset++] = high | (i << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                }
+            }
+            return offset;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            return this;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+
+        @Override
+        byte type() {
+            return BITMAP;
+        }
+
+        @Override
+        int serializedSize() {
+            return SERIALIZED_SIZE;
+        }
+
+        @Override
+        void writeTo(ByteBuffer buffer) {
+            buffer.put(BITMAP);
+            for (long word : words) {
+                buffer.putLong(word);
+            }
+        }
+
+        Container shrink() {
+            return cardinality <= MAX_ARRAY_SIZE ? toArray() : this;
+        }
+
+        ArrayContainer toArray() {
+            char[] values = new char[Math.max(cardinality, 1)];
+            int count = 0;
+            for (int i = 0; i < WORD_COUNT; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[count++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+
+        /**
+         * 连续区间的数量
+         */
+        int runCount() {
+            int count = 0;
+            long previousHighBit = 0;
+            for (long word : words) {
+                count += Long.bitCount(word & ~((word << 1) | previousHighBit));
+                previousHighBit = word >>> 63;
+            }
+            return count;
+        }
+
+        RunContainer toRun(int runCount) {
+            char[] runs = new char[runCount * 2];
+            int run = 0;
+            int start = -1;
+            for (int value = 0; value <= Character.MAX_VALUE; value++) {
+                boolean set = (words[value >>> 6] & (1L << value)) != 0;
+                if (set && start < 0) {
+                    start = value;
+                } else if (!set && start >= 0) {
+                    runs[run++] = (char) start;
+                    runs[run++] = (char) (value - 1 - start);
+                    start = -1;
+                }
+            }
+            if (start >= 0) {
+                runs[run++] = (char) start;
+                runs[run] = (char) (Character.MAX_VALUE - start);
+            }
+            return new RunContainer(runs, runCount);
+        }
+    }
+
+    /**
+     * 区间容器 每个区间存储(起始值, 长度-1)
+     * 只读优化的形态, 修改时先转换成数组或位图
+     */
+    static final class RunContainer extends Container {
+
+        private final char[] runs;
+
+        private final int runCount;
+
+        RunContainer(char[] runs, int runCount) {
+            this.runs = runs;
+            this.runCount = runCount;
+        }
+
+        @Override
+        Container add(char value) {
+            if (contains(value)) {
+                return this;
+            }
+            return toBitmap().shrink().add(value);
+        }
+
+        @Override
+        Container remove(char value) {
+            if (!contains(value)) {
+                return this;
+            }
+            return toBitmap().shrink().remove(value);
+        }
+
+        @Override
+        boolean contains(char value) {
+            int low = 0;
+            int high = runCount - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                char start = runs[middle << 1];
+                if (value < start) {
+                    high = middle - 1;
+                } else if (value > start + runs[(middle << 1) + 1]) {
+                    low = middle + 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        int cardinality() {
+            int cardinality = 0;
+            for (int i = 0; i < runCount; i++) {
+                cardinality += runs[(i << 1) + 1] + 1;
+            }
+            return cardinality;
+        }
+
+        @Override
+        int fill(int[] target, int offset, int high) {
+            for (int i = 0; i < runCount; i++) {
+                int start = runs[i << 1];
+                int end = start + runs[(i << 1) + 1];
+                for (int value = start; value <= end; value++) {
+                    target[offset++] = high | value;
+                }
+            }
+            return offset;
+        }
+
+        @Override
+        BitmapContainer toBitmap() {
+            long[] words = new long[BitmapContainer.WORD_COUNT];
+            for (int i = 0; i < runCount; i++) {
+                int start = runs[i << 1];
+                int end = start + runs[(i << 1) + 1];
+                for (int value = start; value <= end; value++) {
+                    words[value >>> 6] |= 1L << value;
+                }
+            }
+            return new BitmapContainer(words, cardinality());
+        }
+
+        @Override
+        Container copy() {
+            return this;
+        }
+
+        @Override
+        byte type() {
+            return RUN;
+        }
+
+        @Override
+        int serializedSize() {
+            return 1 + 4 + runCount * 4;
+        }
+
+        @Override
+        void writeTo(ByteBuffer buffer) {
+            buffer.put(RUN);
+            buffer.putInt(runCount);
+            for (int i = 0; i < runCount * 2; i++) {
+                buffer.putChar(runs[i]);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,165 @@
+package com.snail.bit;
+
+import java.util.Collection;
+import java.util.EnumSet;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.bit
+ * @Description: 枚举的标记位表, 每个枚举类型只创建一次(ClassValue缓存), 用于预先生成多标记位的掩码
+ * <p>
+ * 例: private static final long ACTIVE_MASK = EnumMaskTable.of(Flag.class).mask(Flag.A, Flag.B);
+ * BitMarkUtil.isMarkAll(mark, ACTIVE_MASK)
+ * @date: 2026/10/18
+ */
+public final class EnumMaskTable<E extends Enum<E>> {
+
+    private static final ClassValue<EnumMaskTable<?>> TABLES = new ClassValue<EnumMaskTable<?>>() {
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        protected EnumMaskTable<?> computeValue(Class<?> type) {
+            return new EnumMaskTable(type);
+        }
+    };
+
+    private final Class<E> enumClass;
+
+    private final E[] constants;
+
+    /**
+     * 下标为枚举序号, 超过64位的为0
+     */
+    private final long[] bits;
+
+    private final long allMask;
+
+    private EnumMaskTable(Class<E> enumClass) {
+        this.enumClass = enumClass;
+        this.constants = enumClass.getEnumConstants();
+        this.bits = new long[constants.length];
+        long all = 0L;
+        for (int i = 0; i < constants.length && i < Long.SIZE; i++) {
+            bits[i] = 1L << i;
+            all |= bits[i];
+        }
+        this.allMask = all;
+    }
+
+    /**
+     * 获取枚举的标记位表
+     *
+     * @param enumClass 枚举类型
+     * @param <E>       枚举类型
+     * @return 标记位表
+     */
+    @SuppressWarnings("unchecked")
+    public static <E extends Enum<E>> EnumMaskTable<E> of(Class<E> enumClass) {
+        if (!enumClass.isEnum()) {
+            throw new IllegalArgumentException(enumClass.getName() + "不是枚举类型");
+        }
+        return (EnumMaskTable<E>) TABLES.get(enumClass);
+    }
+
+    /**
+     * 单个枚举的标记位
+     *
+     * @param markEnum 标记枚举
+     * @return long标记位
+     * @throws ArithmeticException 枚举序号超出64位
+     */
+    public long bit(E markEnum) {
+        long bit = bits[markEnum.ordinal()];
+        if (bit == 0L) {
+            throw new ArithmeticException("枚举" + markEnum + "的序号" + markEnum.ordinal() + "超出long的位数, 请使用BitMark");
+        }
+        return bit;
+    }
+
+    /**
+     * 多个枚举的掩码
+     *
+     * @param enums 枚举
+     * @return long掩码
+     */
+    @SafeVarargs
+    public final long mask(E... enums) {
+        long mask = 0L;
+        for (E markEnum : enums) {
+            if (markEnum != null) {
+                mask |= bit(markEnum);
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 多个枚举的掩码
+     *
+     * @param enums 枚举
+     * @return long掩码
+     */
+    public long mask(Collection<? extends E> enums) {
+        long mask = 0L;
+        if (enums != null) {
+            for (E markEnum : enums) {
+                if (markEnum != null) {
+                    mask |= bit(markEnum);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * 多个枚举的int掩码
+     *
+     * @param enums 枚举
+     * @return int掩码
+     * @throws ArithmeticException 存在超过32位的标记位
+     */
+    @SafeVarargs
+    public final int intMask(E... enums) {
+        return BitMarkUtil.toIntMark(mask(enums));
+    }
+
+    /**
+     * 所有枚举的掩码(最多64位)
+     */
+    public long allMask() {
+        return allMask;
+    }
+
+    /**
+     * 掩码转换为EnumSet
+     *
+     * @param mask long掩码
+     * @return EnumSet
+     */
+    public EnumSet<E> toEnumSet(long mask) {
+        return BitMarkUtil.toEnumSet(mask, enumClass);
+    }
+
+    /**
+     * 序号对应的枚举
+     *
+     * @param ordinal 序号
+     * @return 枚举
+     */
+    public E constant(int ordinal) {
+        return constants[ordinal];
+    }
+
+    /**
+     * 枚举常量数
+     */
+    public int width() {
+        return constants.length;
+    }
+
+    public Class<E> getEnumClass() {
+        return enumClass;
+    }
+
+}
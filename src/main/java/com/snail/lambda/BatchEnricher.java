@@ -0,0 +1,237 @@
+package com.snail.lambda;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.lambda
+ * @Description: 分批转换(例: 收集id后分批查询), 每批在executor上异步执行, 同时执行的批数有上限, 每批可以单独重试
+ * 结果按批次顺序拼接(列表)或者转成map, 配置完成后线程安全, 可以复用
+ * <p>
+ * 例: BatchEnricher&lt;Long, User&gt; enricher = LambdaUtil.batchEnricher(userDao::listByIds, executor).chunkSize(500).concurrency(4);
+ * List&lt;User&gt; userList = LambdaUtil.toList(orderList, Order::getUserId, enricher);
+ * Map&lt;Long, User&gt; userMap = LambdaUtil.toMap(userIdList, enricher, User::getId);
+ * @date: 2026/10/18
+ */
+public final class BatchEnricher<M, T> {
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    public static final int DEFAULT_CONCURRENCY = 4;
+
+    private final Function<List<M>, List<T>> convertFun;
+
+    private final Executor executor;
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    private int concurrency = DEFAULT_CONCURRENCY;
+
+    private int maxRetries;
+
+    private long retryBackoffMillis;
+
+    BatchEnricher(Function<List<M>, List<T>> convertFun, Executor executor) {
+        if (convertFun == null || executor == null) {
+            throw new IllegalArgumentException("convertFun和executor不能为空");
+        }
+        this.convertFun = convertFun;
+        this.executor = executor;
+    }
+
+    /**
+     * 每批的大小
+     *
+     * @param chunkSize 大于0
+     * @return this
+     */
+    public BatchEnricher<M, T> chunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize需要大于0: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * 同时执行的最大批数
+     *
+     * @param concurrency 大于0
+     * @return this
+     */
+    public BatchEnricher<M, T> concurrency(int concurrency) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency需要大于0: " + concurrency);
+        }
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * 每批失败(抛出RuntimeException)后的重试
+     *
+     * @param maxRetries 最多重试次数, 0为不重试
+     * @param backoff    两次重试之间的等待时间
+     * @param unit       时间单位
+     * @return this
+     */
+    public BatchEnricher<M, T> retry(int maxRetries, long backoff, TimeUnit unit) {
+        if (maxRetries < 0 || backoff < 0) {
+            throw new IllegalArgumentException("maxRetries和backoff不能小于0");
+        }
+        this.maxRetries = maxRetries;
+        this.retryBackoffMillis = unit.toMillis(backoff);
+        return this;
+    }
+
+    /**
+     * 异步转换, 结果按批次顺序拼接
+     * Note 任意一批重试后仍然失败时, 不再开始新的批次, future以这一批的异常结束
+     *
+     * @param mediumList 需要转换的列表
+     * @return future
+     */
+    public CompletableFuture<List<T>> toListAsync(List<M> mediumList) {
+
+        if (mediumList.isEmpty()) {
+            return CompletableFuture.completedFuture(new ArrayList<>());
+        }
+
+        int chunkCount = (mediumList.size() + chunkSize - 1) / chunkSize;
+        List<List<T>> chunkResults = new ArrayList<>(chunkCount);
+        for (int i = 0; i < chunkCount; i++) {
+            chunkResults.add(null);
+        }
+        AtomicInteger nextChunk = new AtomicInteger();
+        int laneCount = Math.min(concurrency, chunkCount);
+        CompletableFuture<?>[] lanes = new CompletableFuture<?>[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = CompletableFuture.runAsync(() -> runLane(mediumList, chunkResults, nextChunk, chunkCount), executor);
+        }
+
+        return CompletableFuture.allOf(lanes).thenApply(ignored -> {
+            int size = 0;
+            for (List<T> chunkResult : chunkResults) {
+                size += chunkResult.size();
+            }
+            List<T> targetList = new ArrayList<>(size);
+            for (List<T> chunkResult : chunkResults) {
+                targetList.addAll(chunkResult);
+            }
+            return targetList;
+        });
+
+    }
+
+    /**
+     * 转换, 结果按批次顺序拼接, 等待所有批次完成
+     *
+     * @param mediumList 需要转换的列表
+     * @return 转换后的列表
+     */
+    public List<T> toList(List<M> mediumList) {
+        return join(toListAsync(mediumList));
+    }
+
+    /**
+     * 异步转换为map, 重复键保留后者(按批次顺序)
+     *
+     * @param mediumList 需要转换的列表
+     * @param keyFun     生成键的方法
+     * @param <K>        键类型
+     * @return future
+     */
+    public <K> CompletableFuture<Map<K, T>> toMapAsync(List<M> mediumList, Function<T, K> keyFun) {
+        return toListAsync(mediumList).thenApply(targetList -> {
+            Map<K, T> targetMap = new HashMap<>((int) (targetList.size() / 0.75f) + 1);
+            for (T target : targetList) {
+                targetMap.put(keyFun.apply(target), target);
+            }
+            return targetMap;
+        });
+    }
+
+    /**
+     * 转换为map, 重复键保留后者(按批次顺序), 等待所有批次完成
+     *
+     * @param mediumList 需要转换的列表
+     * @param keyFun     生成键的方法
+     * @param <K>        键类型
+     * @return map
+     */
+    public <K> Map<K, T> toMap(List<M> mediumList, Function<T, K> keyFun) {
+        return join(toMapAsync(mediumList, keyFun));
+    }
+
+    /**
+     * 一个执行通道, 依次领取还没有开始的批次, 通道数即并发上限
+     */
+    private void runLane(List<M> mediumList, List<List<T>> chunkResults, AtomicInteger nextChunk, int chunkCount) {
+        int chunk;
+        while ((chunk = nextChunk.getAndIncrement()) < chunkCount) {
+            int from = chunk * chunkSize;
+            List<M> chunkList = mediumList.subList(from, Math.min(from + chunkSize, mediumList.size()));
+            try {
+                chunkResults.set(chunk, convertWithRetry(chunkList));
+            } catch (RuntimeException e) {
+//                其他通道不再领取新的批次
+                nextChunk.set(chunkCount);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 执行一批, 重试后仍然失败时抛出最后一次的异常, 之前的异常作为suppressed
+     */
+    private List<T> convertWithRetry(List<M> chunkList) {
+        List<RuntimeException> failures = new ArrayList<>(0);
+        for (int attempt = 0; attempt <= maxRetries; attempt++) {
+            if (attempt > 0 && retryBackoffMillis > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(retryBackoffMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            try {
+                List<T> targetList = convertFun.apply(chunkList);
+                return targetList == null ? new ArrayList<>() : targetList;
+            } catch (RuntimeException e) {
+                failures.add(e);
+            }
+        }
+        RuntimeException failure = failures.get(failures.size() - 1);
+        for (int i = 0; i < failures.size() - 1; i++) {
+            failure.addSuppressed(failures.get(i));
+        }
+        throw failure;
+    }
+
+    /**
+     * 等待结果, 抛出批次中原始的RuntimeException
+     */
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.snail.lambda;
+
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.lambda
+ * @Description: 基于布隆过滤器的近似去重, 内存固定, 不会漏掉重复的键, 但有一定概率把新键当作重复过滤掉
+ * 按键的64位hash计算位置(Long/Integer取值本身, 字符串按字符计算64位hash, 其他类型只能使用hashCode)
+ * hashCode相同的其他类型键总会被当作重复, 这种情况可以使用long键的版本自定义64位hash
+ * 超过预计数量后误判率会上升(可以通过getCurrentFpp()观察)
+ * @date: 2026/10/18
+ */
+public final class BloomDistinctPredicate<T, K> implements BoundedDistinctPredicate<T> {
+
+    /**
+     * 元素 -> 键的64位hash
+     */
+    private final ToLongFunction<T> hashFun;
+
+    private final long[] bits;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    private final double fpp;
+
+    private long insertions;
+
+    /**
+     * @param keyFun             生成键的方法
+     * @param expectedInsertions 预计的不同键数量
+     * @param fpp                期望的误判率(0~1)
+     */
+    BloomDistinctPredicate(Function<T, K> keyFun, long expectedInsertions, double fpp) {
+        this(expectedInsertions, fpp, target -> hash64(keyFun.apply(target)));
+    }
+
+    /**
+     * @param expectedInsertions 预计的不同键数量
+     * @param fpp                期望的误判率(0~1)
+     * @param hashFun            元素 -> 键的64位hash
+     */
+    private BloomDistinctPredicate(long expectedInsertions, double fpp, ToLongFunction<T> hashFun) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions需要大于0: " + expectedInsertions);
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("fpp需要在0和1之间: " + fpp);
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.hashFun = hashFun;
+        this.bits = new long[Math.toIntExact((optimalBits + 63) >>> 6)];
+        this.bitCount = (long) bits.length << 6;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+        this.fpp = fpp;
+    }
+
+    /**
+     * long键(如id), 按键的全部64位计算位置
+     *
+     * @param keyFun             生成long键的方法
+     * @param expectedInsertions 预计的不同键数量
+     * @param fpp                期望的误判率(0~1)
+     * @param <T>                源类型
+     * @return Predicate
+     */
+    static <T> BloomDistinctPredicate<T, Long> ofLong(ToLongFunction<T> keyFun, long expectedInsertions, double fpp) {
+        return new BloomDistinctPredicate<>(expectedInsertions, fpp, keyFun);
+    }
+
+    @Override
+    public boolean test(T target) {
+        long key = hashFun.applyAsLong(target);
+        long hash1 = mix(key);
+//        第二个hash为奇数, 保证k次探测的位置不会重合到同一位
+        long hash2 = mix(key + 0x9E3779B97F4A7C15L) | 1L;
+        boolean added = false;
+        for (int i = 1; i <= hashCount; i++) {
+            long combined = hash1 + i * hash2;
+            long index = (combined & Long.MAX_VALUE) % bitCount;
+            int word = (int) (index >>> 6);
+            long bit = 1L << index;
+            if ((bits[word] & bit) == 0) {
+                bits[word] |= bit;
+                added = true;
+            }
+        }
+        if (added) {
+            insertions++;
+        }
+        return added;
+    }
+
+    private static long mix(long key) {
+        long h = key ^ (key >>> 33);
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * 键的64位hash, 避免只用32位hashCode时不同的键(大于2^32的Long, hashCode相同的字符串)总被当作重复
+     */
+    static long hash64(Object key) {
+        if (key == null) {
+            return 0L;
+        }
+        if (key instanceof Long || key instanceof Integer || key instanceof Short || key instanceof Byte) {
+            return ((Number) key).longValue();
+        }
+        if (key instanceof CharSequence) {
+            CharSequence chars = (CharSequence) key;
+//            FNV-1a 不能用31做乘数, 否则和String.hashCode的冲突(Aa BB)相同
+            long h = 0xCBF29CE484222325L;
+            for (int i = 0; i < chars.length(); i++) {
+                h ^= chars.charAt(i);
+                h *= 0x100000001B3L;
+            }
+            return h;
+        }
+        return key.hashCode();
+    }
+
+    /**
+     * 通过的键数量
+     */
+    @Override
+    public long size() {
+        return insertions;
+    }
+
+    @Override
+    public long memoryBytes() {
+        return bits.length * 8L;
+    }
+
+    /**
+     * 期望的误判率
+     */
+    public double getFpp() {
+        return fpp;
+    }
+
+    /**
+     * 按当前插入数量估算的误判率
+     */
+    public double getCurrentFpp() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * insertions / bitCount), hashCount);
+    }
+
+    @Override
+    public String toString() {
+        return "BloomDistinctPredicate{" +
+            "bitCount=" + bitCount +
+            ", hashCount=" + hashCount +
+            ", size=" + size() +
+            ", memoryBytes=" + memoryBytes() +
+            ", currentFpp=" + getCurrentFpp() +
+            '}';
+    }
+
+}
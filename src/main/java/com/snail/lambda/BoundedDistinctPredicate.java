@@ -0,0 +1,25 @@
+package com.snail.lambda;
+
+import java.util.function.Predicate;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.lambda
+ * @Description: 内存有上限的去重Predicate, 用于无界的Stream/Iterator(在filter中使用, 非线程安全)
+ * @date: 2026/10/18
+ */
+public interface BoundedDistinctPredicate<T> extends Predicate<T> {
+
+    /**
+     * 当前记录的键数量
+     */
+    long size();
+
+    /**
+     * 估算占用的内存(字节), 不包含键对象本身
+     */
+    long memoryBytes();
+
+}
@@ -0,0 +1,315 @@
+package com.snail.lambda;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.lambda
+ * @Description: 超过内存阈值后按键的hash把元素溢写到多个临时文件(分区), 再逐个分区内存映射读回并去重/转map
+ * 同一个键的元素都在同一个分区, 且保持源顺序, 所以逐个分区处理的结果和整体处理一致, 内存只需要容纳一个分区
+ * @date: 2026/10/18
+ */
+final class ExternalPartitioner<T, K> {
+
+    private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * 读取分区时每次映射的大小, 映射要等GC后才释放, 分段映射避免同时占用整个分区文件大小的地址空间
+     */
+    private static final int MAP_WINDOW_SIZE = 1 << 24;
+
+    private final Function<T, K> keyFun;
+
+    private final SpillCodec<T> codec;
+
+    private final int maxInMemory;
+
+    private final int partitionCount;
+
+    private final Path tempDir;
+
+    private final int mapWindowSize;
+
+    /**
+     * @param keyFun         生成键的方法(键的hashCode需要在读回后保持一致, 不要使用默认的Object.hashCode)
+     * @param codec          元素编解码
+     * @param maxInMemory    内存中最多保留的键数量, 超过后开始溢写
+     * @param partitionCount 分区数
+     * @param tempDir        临时文件目录, 为null时使用java.io.tmpdir
+     */
+    ExternalPartitioner(Function<T, K> keyFun, SpillCodec<T> codec, int maxInMemory, int partitionCount, Path tempDir) {
+        this(keyFun, codec, maxInMemory, partitionCount, tempDir, MAP_WINDOW_SIZE);
+    }
+
+    /**
+     * @param mapWindowSize 读取分区时每次映射的大小
+     */
+    ExternalPartitioner(
+        Function<T, K> keyFun, SpillCodec<T> codec, int maxInMemory, int partitionCount, Path tempDir, int mapWindowSize
+    ) {
+        if (maxInMemory <= 0 || partitionCount <= 0 || mapWindowSize <= 0) {
+            throw new IllegalArgumentException("maxInMemory、partitionCount和mapWindowSize必须大于0");
+        }
+        this.keyFun = keyFun;
+        this.codec = codec;
+        this.maxInMemory = maxInMemory;
+        this.partitionCount = partitionCount;
+        this.tempDir = tempDir;
+        this.mapWindowSize = mapWindowSize;
+    }
+
+    /**
+     * 去重, 保留重复的第一个
+     * Note 没有溢写时按源顺序输出, 溢写后按分区输出(分区内保持源顺序)
+     *
+     * @return 输出的元素数
+     */
+    long distinct(Iterator<T> source, Consumer<T> sink) {
+        Set<K> keySet = new HashSet<>();
+        List<T> keptList = new ArrayList<>();
+        while (source.hasNext()) {
+            T item = source.next();
+            if (keySet.add(keyFun.apply(item))) {
+                keptList.add(item);
+                if (keySet.size() > maxInMemory) {
+                    keySet.clear();
+                    return spill(keptList, source, this::distinctPartition, sink);
+                }
+            }
+        }
+        keptList.forEach(sink);
+        return keptList.size();
+    }
+
+    /**
+     * 转map, 重复键保留后者, 结果按键值对逐个输出
+     *
+     * @return 输出的键值对数
+     */
+    long toMap(Iterator<T> source, BiConsumer<K, T> sink) {
+        Map<K, T> map = new HashMap<>();
+        while (source.hasNext()) {
+            T item = source.next();
+            map.put(keyFun.apply(item), item);
+            if (map.size() > maxInMemory) {
+                return spill(map.values(), source, this::toMapPartition, sink);
+            }
+        }
+        map.forEach(sink);
+        return map.size();
+    }
+
+    /**
+     * 把内存中已有的和剩余的元素都写入分区文件, 再逐个分区处理
+     */
+    private <S> long spill(Collection<T> bufferedItems, Iterator<T> source, PartitionProcessor<S> processor, S sink) {
+        Path spillDir = null;
+        Path[] partitionFiles = new Path[partitionCount];
+        try {
+            spillDir = tempDir == null ? Files.createTempDirectory("snail-spill") : Files.createTempDirectory(tempDir, "snail-spill");
+            DataOutputStream[] outputs = new DataOutputStream[partitionCount];
+            try {
+                for (int i = 0; i < partitionCount; i++) {
+                    partitionFiles[i] = spillDir.resolve("partition-" + i);
+                    outputs[i] = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partitionFiles[i]), WRITE_BUFFER_SIZE));
+                }
+                for (T item : bufferedItems) {
+                    codec.write(item, outputs[partitionOf(keyFun.apply(item))]);
+                }
+//                内存中的元素已经写入, 提前释放
+                bufferedItems.clear();
+                while (source.hasNext()) {
+                    T item = source.next();
+                    codec.write(item, outputs[partitionOf(keyFun.apply(item))]);
+                }
+            } finally {
+                closeAll(outputs);
+            }
+
+            long count = 0;
+            for (Path partitionFile : partitionFiles) {
+                count += processor.process(partitionFile, sink);
+//                映射还没有被GC释放时部分系统(windows)无法删除, 删除失败时留给finally再次清理
+                deleteQuietly(partitionFile);
+            }
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteQuietly(partitionFiles, spillDir);
+        }
+    }
+
+    private long distinctPartition(Path partitionFile, Consumer<T> sink) throws IOException {
+        Set<K> keySet = new HashSet<>();
+        long count = 0;
+        try (PartitionReader reader = new PartitionReader(partitionFile)) {
+            while (reader.hasNext()) {
+                T item = reader.next();
+                if (keySet.add(keyFun.apply(item))) {
+                    sink.accept(item);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private long toMapPartition(Path partitionFile, BiConsumer<K, T> sink) throws IOException {
+        Map<K, T> map = new HashMap<>();
+        try (PartitionReader reader = new PartitionReader(partitionFile)) {
+            while (reader.hasNext()) {
+                T item = reader.next();
+                map.put(keyFun.apply(item), item);
+            }
+        }
+        map.forEach(sink);
+        return map.size();
+    }
+
+    private int partitionOf(K key) {
+        return Math.floorMod(PrimitiveHash.mix(Objects.hashCode(key)), partitionCount);
+    }
+
+    private static void closeAll(DataOutputStream[] outputs) throws IOException {
+        IOException failure = null;
+        for (DataOutputStream output : outputs) {
+            if (output == null) {
+                continue;
+            }
+            try {
+                output.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static void deleteQuietly(Path[] partitionFiles, Path spillDir) {
+        for (Path partitionFile : partitionFiles) {
+            deleteQuietly(partitionFile);
+        }
+        deleteQuietly(spillDir);
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            if (path != null) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException ignored) {
+//            临时目录中的文件, 删除失败不影响结果
+        }
+    }
+
+    @FunctionalInterface
+    private interface PartitionProcessor<S> {
+
+        long process(Path partitionFile, S sink) throws IOException;
+    }
+
+    /**
+     * 分段内存映射读取一个分区, 按写入顺序逐个读出元素
+     */
+    private final class PartitionReader implements Closeable {
+
+        private final FileChannel channel;
+
+        private final long size;
+
+        private final DataInputStream input;
+
+        /**
+         * 当前映射段在文件中的起始位置
+         */
+        private long windowStart;
+
+        private ByteBuffer window = ByteBuffer.allocate(0);
+
+        PartitionReader(Path partitionFile) throws IOException {
+            this.channel = FileChannel.open(partitionFile, StandardOpenOption.READ);
+            this.size = channel.size();
+            this.input = new DataInputStream(new WindowInputStream());
+        }
+
+        boolean hasNext() {
+            return windowStart + window.position() < size;
+        }
+
+        T next() throws IOException {
+            return codec.read(input);
+        }
+
+        @Override
+        public void close() throws IOException {
+            window = null;
+            channel.close();
+        }
+
+        /**
+         * 当前段读完时映射下一段, 一个元素可以跨两段
+         */
+        private boolean nextWindow() throws IOException {
+            long nextStart = windowStart + window.limit();
+            if (nextStart >= size) {
+                return false;
+            }
+            window = channel.map(FileChannel.MapMode.READ_ONLY, nextStart, Math.min(mapWindowSize, size - nextStart));
+            windowStart = nextStart;
+            return true;
+        }
+
+        private final class WindowInputStream extends InputStream {
+
+            @Override
+            public int read() throws IOException {
+                if (!window.hasRemaining() && !nextWindow()) {
+                    return -1;
+                }
+                return window.get() & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] bytes, int offset, int length) throws IOException {
+                if (length == 0) {
+                    return 0;
+                }
+                if (!window.hasRemaining() && !nextWindow()) {
+                    return -1;
+                }
+                int read = Math.min(length, window.remaining());
+                window.get(bytes, offset, read);
+                return read;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.snail.lambda;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.lambda
+ * @Description: int的开放寻址set, add/contains不装箱(非线程安全)
+ * @date: 2026/10/18
+ */
+public final class IntHashSet {
+
+    private int[] keys;
+
+    private boolean hasZeroKey;
+
+    private int mask;
+
+    private int maxFill;
+
+    private int size;
+
+    public IntHashSet() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize 预计的元素数(按这个大小创建表, 不需要扩容)
+     */
+    public IntHashSet(int expectedSize) {
+        allocate(PrimitiveHash.tableSize(expectedSize, PrimitiveHash.DEFAULT_LOAD_FACTOR));
+    }
+
+    /**
+     * 添加
+     *
+     * @param key 值
+     * @return 是否是新的值
+     */
+    public boolean add(int key) {
+        if (key == 0) {
+            if (hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = true;
+            size++;
+            return true;
+        }
+        int index = PrimitiveHash.mix(key) & mask;
+        int current;
+        while ((current = keys[index]) != 0) {
+            if (current == key) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        if (++size > maxFill) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(int key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        int index = PrimitiveHash.mix(key) & mask;
+        int current;
+        while ((current = keys[index]) != 0) {
+            if (current == key) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 所有值(无序)
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        int count = 0;
+        if (hasZeroKey) {
+            result[count++] = 0;
+        }
+        for (int key : keys) {
+            if (key != 0) {
+                result[count++] = key;
+            }
+        }
+        return result;
+    }
+
+    private void allocate(int tableSize) {
+        keys = new int[tableSize];
+        mask = tableSize - 1;
+        maxFill = PrimitiveHash.maxFill(tableSize, PrimitiveHash.DEFAULT_LOAD_FACTOR);
+    }
+
+    private void rehash(int tableSize) {
+        int[] oldKeys = keys;
+        allocate(tableSize);
+        for (int key : oldKeys) {
+            if (key != 0) {
+                int index = PrimitiveHash.mix(key) & mask;
+                while (keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+            }
+        }
+    }
+
+}
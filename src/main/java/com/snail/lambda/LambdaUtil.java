@@ -1,12 +1,19 @@
 package com.snail.lambda;
 
+import java.nio.file.Path;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -77,6 +84,27 @@ public enum LambdaUtil {
 
     }
 
+    /**
+     * 转换列表, 分批异步执行convertFun(例: 收集id后分批查询), 结果按源列表的批次顺序拼接
+     *
+     * @param sourceList 源列表
+     * @param mapFun     转换时的方法(null会被过滤)
+     * @param enricher   分批转换配置
+     * @param <R>        源列表类型
+     * @param <M>        中间类型
+     * @param <T>        目标类型
+     * @return 转换后的列表
+     */
+    public static <R, M, T> List<T> toList(List<R> sourceList, Function<R, M> mapFun, BatchEnricher<M, T> enricher) {
+
+        if (sourceList.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        return enricher.toList(toList(sourceList, mapFun));
+
+    }
+
     /**
      * 列表转map
      *
@@ -109,20 +137,147 @@ public enum LambdaUtil {
 
     }
 
+    /**
+     * 列表转map, 分批异步执行转换, 重复键保留后者
+     *
+     * @param sourceList 源列表
+     * @param enricher   分批转换配置
+     * @param keyFun     生成键的方法
+     * @param <R>        源类型
+     * @param <T>        目标类型
+     * @param <K>        键类型
+     * @return map
+     */
+    public static <R, T, K> Map<K, T> toMap(List<R> sourceList, BatchEnricher<R, T> enricher, Function<T, K> keyFun) {
+
+        if (sourceList.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        return enricher.toMap(sourceList, keyFun);
+
+    }
+
+    /**
+     * 列表转不可变的紧凑map, 重复键保留后者
+     * Note 适合创建后只读的查找表, 比HashMap占用更少内存, get更快
+     *
+     * @param sourceList 源列表
+     * @param keyFun     生成键的方法
+     * @param <R>        源类型
+     * @param <K>        键类型
+     * @return 不可变map
+     */
+    public static <R, K> CompactMap<K, R> toCompactMap(List<R> sourceList, Function<R, K> keyFun) {
+        return toCompactMap(sourceList, keyFun, Function.identity(), replaceMergeFunction());
+    }
+
+    /**
+     * 列表转不可变的紧凑map
+     *
+     * @param sourceList 源列表
+     * @param keyFun     生成键的方法
+     * @param valueFun   生成值的方法
+     * @param mergeFun   重复键时的合并方法(参数为原值, 新值)
+     * @param <R>        源类型
+     * @param <K>        键类型
+     * @param <V>        值类型
+     * @return 不可变map
+     */
+    public static <R, K, V> CompactMap<K, V> toCompactMap(
+        List<R> sourceList, Function<R, K> keyFun, Function<R, V> valueFun, BinaryOperator<V> mergeFun
+    ) {
+        return CompactMap.of(sourceList, keyFun, valueFun, mergeFun);
+    }
+
+    /**
+     * 列表转map(int键), 键不装箱, 重复键保留后者
+     *
+     * @param sourceList 源列表
+     * @param keyFun     生成键的方法
+     * @param <R>        源类型
+     * @return map
+     */
+    public static <R> IntObjectMap<R> toIntMap(List<R> sourceList, ToIntFunction<R> keyFun) {
+
+        IntObjectMap<R> map = new IntObjectMap<>(sourceList.size());
+
+        for (R source : sourceList) {
+            map.put(keyFun.applyAsInt(source), source);
+        }
+
+        return map;
+
+    }
+
+    /**
+     * 列表转map(long键), 键不装箱, 重复键保留后者
+     *
+     * @param sourceList 源列表
+     * @param keyFun     生成键的方法
+     * @param <R>        源类型
+     * @return map
+     */
+    public static <R> LongObjectMap<R> toLongMap(List<R> sourceList, ToLongFunction<R> keyFun) {
+
+        LongObjectMap<R> map = new LongObjectMap<>(sourceList.size());
+
+        for (R source : sourceList) {
+            map.put(keyFun.applyAsLong(source), source);
+        }
+
+        return map;
+
+    }
+
+    /**
+     * 去重时默认超过这个大小使用并行
+     */
+    public static final int DEFAULT_DISTINCT_PARALLEL_THRESHOLD = 1 << 14;
+
     /**
      * 列表去重
+     * Note 并行时结果和串行一致(保留重复的第一个), keyFun会在多个线程中调用
      *
      * @param sourceList 源列表
      * @param keyFun     生成键的方法(使用这个键来去重)
-     * @param isParallel 是否使用parallelStream
+     * @param isParallel 是否并行
      * @param <T>        源类型
      * @param <K>        键类型
      * @return 去重后的list
      */
     public static <T, K> List<T> distinct(List<T> sourceList, Function<T, K> keyFun, boolean isParallel) {
-        return (isParallel ? sourceList.parallelStream() : sourceList.stream())
-            .filter(distinctPredicate(sourceList, keyFun, isParallel))
-            .collect(Collectors.toList());
+        if (isParallel) {
+            return OrderedParallelDistinct.distinct(sourceList, keyFun);
+        }
+        return distinct(sourceList, keyFun);
+    }
+
+    /**
+     * 列表去重, 列表大小达到parallelThreshold时并行(结果和串行一致)
+     *
+     * @param sourceList        源列表
+     * @param keyFun            生成键的方法(使用这个键来去重)
+     * @param parallelThreshold 并行的最小列表大小
+     * @param <T>               源类型
+     * @param <K>               键类型
+     * @return 去重后的list
+     */
+    public static <T, K> List<T> distinct(List<T> sourceList, Function<T, K> keyFun, int parallelThreshold) {
+        return distinct(sourceList, keyFun, sourceList.size() >= parallelThreshold);
+    }
+
+    /**
+     * 列表去重, 按列表大小自动选择串行或并行(结果和串行一致)
+     *
+     * @param sourceList 源列表
+     * @param keyFun     生成键的方法(使用这个键来去重)
+     * @param <T>        源类型
+     * @param <K>        键类型
+     * @return 去重后的list
+     */
+    public static <T, K> List<T> distinctAuto(List<T> sourceList, Function<T, K> keyFun) {
+        return distinct(sourceList, keyFun, DEFAULT_DISTINCT_PARALLEL_THRESHOLD);
     }
 
     /**
@@ -186,6 +341,301 @@ public enum LambdaUtil {
     }
 
 
+    /**
+     * 列表去重(int键), 保留重复的第一个
+     *
+     * @param sourceList 源列表
+     * @param keyFun     生成键的方法(使用这个键来去重)
+     * @param <T>        源类型
+     * @return 去重后的list
+     */
+    public static <T> List<T> distinctByInt(List<T> sourceList, ToIntFunction<T> keyFun) {
+        Predicate<T> predicate = distinctIntPredicate(sourceList, keyFun);
+        List<T> result = new ArrayList<>();
+        for (T source : sourceList) {
+            if (predicate.test(source)) {
+                result.add(source);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 列表去重(long键), 保留重复的第一个
+     *
+     * @param sourceList 源列表
+     * @param keyFun     生成键的方法(使用这个键来去重)
+     * @param <T>        源类型
+     * @return 去重后的list
+     */
+    public static <T> List<T> distinctByLong(List<T> sourceList, ToLongFunction<T> keyFun) {
+        Predicate<T> predicate = distinctLongPredicate(sourceList, keyFun);
+        List<T> result = new ArrayList<>();
+        for (T source : sourceList) {
+            if (predicate.test(source)) {
+                result.add(source);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 生成一个用于去重的Predicate(int键, 不装箱)
+     * Note 会保留重复的第一个，不能用于ParallelStream
+     *
+     * @param sourceList 源列表(用于生成去重集合的大小, 可以为null)
+     * @param keyFun     生成键的方法(使用这个键来去重)
+     * @param <T>        源类型
+     * @return Predicate
+     */
+    public static <T> Predicate<T> distinctIntPredicate(List<T> sourceList, ToIntFunction<T> keyFun) {
+        IntHashSet keySet = sourceList == null ? new IntHashSet() : new IntHashSet(sourceList.size());
+        return (target) -> keySet.add(keyFun.applyAsInt(target));
+    }
+
+    /**
+     * 生成一个用于去重的Predicate(long键, 不装箱)
+     * Note 会保留重复的第一个，不能用于ParallelStream
+     *
+     * @param sourceList 源列表(用于生成去重集合的大小, 可以为null)
+     * @param keyFun     生成键的方法(使用这个键来去重)
+     * @param <T>        源类型
+     * @return Predicate
+     */
+    public static <T> Predicate<T> distinctLongPredicate(List<T> sourceList, ToLongFunction<T> keyFun) {
+        LongHashSet keySet = sourceList == null ? new LongHashSet() : new LongHashSet(sourceList.size());
+        return (target) -> keySet.add(keyFun.applyAsLong(target));
+    }
+
+    /**
+     * 生成一个只记住最近maxKeys个不同键的去重Predicate(用于无界的Stream/Iterator, 内存有上限)
+     * Note 会保留重复的第一个，不能用于ParallelStream
+     *
+     * @param keyFun  生成键的方法(使用这个键来去重)
+     * @param maxKeys 最多记住的键数量
+     * @param <T>     源类型
+     * @param <K>     键类型
+     * @return Predicate
+     */
+    public static <T, K> WindowedDistinctPredicate<T, K> windowedDistinctPredicate(Function<T, K> keyFun, int maxKeys) {
+        return windowedDistinctPredicate(keyFun, maxKeys, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 生成一个只记住最近一段时间内的键的去重Predicate(用于无界的Stream/Iterator, 内存有上限)
+     * Note 会保留重复的第一个，不能用于ParallelStream
+     *
+     * @param keyFun 生成键的方法(使用这个键来去重)
+     * @param window 时间窗口(从键第一次出现开始计算)
+     * @param unit   时间单位
+     * @param <T>    源类型
+     * @param <K>    键类型
+     * @return Predicate
+     */
+    public static <T, K> WindowedDistinctPredicate<T, K> windowedDistinctPredicate(
+        Function<T, K> keyFun, long window, TimeUnit unit
+    ) {
+        return windowedDistinctPredicate(keyFun, 0, window, unit);
+    }
+
+    /**
+     * 生成一个窗口内精确去重的Predicate, 同时限制键数量和时间
+     * Note 会保留重复的第一个，不能用于ParallelStream
+     *
+     * @param keyFun  生成键的方法(使用这个键来去重)
+     * @param maxKeys 最多记住的键数量, 小于等于0时不限制
+     * @param window  时间窗口, 小于等于0时不限制
+     * @param unit    时间单位
+     * @param <T>     源类型
+     * @param <K>     键类型
+     * @return Predicate
+     */
+    public static <T, K> WindowedDistinctPredicate<T, K> windowedDistinctPredicate(
+        Function<T, K> keyFun, int maxKeys, long window, TimeUnit unit
+    ) {
+        return new WindowedDistinctPredicate<>(keyFun, maxKeys, window, unit, System::nanoTime);
+    }
+
+    /**
+     * 生成一个基于布隆过滤器的近似去重Predicate, 内存固定(不会放过重复的键, 会按误判率过滤掉少量新键)
+     * Note 不能用于ParallelStream
+     *
+     * @param keyFun             生成键的方法(使用这个键来去重, Long/Integer/字符串按64位hash判断, 其他类型按hashCode判断)
+     * @param expectedInsertions 预计的不同键数量
+     * @param fpp                误判率(0~1)
+     * @param <T>                源类型
+     * @param <K>                键类型
+     * @return Predicate
+     */
+    public static <T, K> BloomDistinctPredicate<T, K> approximateDistinctPredicate(
+        Function<T, K> keyFun, long expectedInsertions, double fpp
+    ) {
+        return new BloomDistinctPredicate<>(keyFun, expectedInsertions, fpp);
+    }
+
+    /**
+     * 生成一个基于布隆过滤器的近似去重Predicate long键, 按键的全部64位判断(也可以传入自定义的64位hash)
+     * Note 不能用于ParallelStream
+     *
+     * @param keyFun             生成long键的方法
+     * @param expectedInsertions 预计的不同键数量
+     * @param fpp                误判率(0~1)
+     * @param <T>                源类型
+     * @return Predicate
+     */
+    public static <T> BloomDistinctPredicate<T, Long> approximateDistinctLongPredicate(
+        ToLongFunction<T> keyFun, long expectedInsertions, double fpp
+    ) {
+        return BloomDistinctPredicate.ofLong(keyFun, expectedInsertions, fpp);
+    }
+
+    /**
+     * 溢写时默认的分区数
+     */
+    public static final int DEFAULT_SPILL_PARTITIONS = 64;
+
+    /**
+     * 去重, 内存中的键超过maxInMemory后按键的hash溢写到临时文件分区, 逐个分区去重, 内存占用有上限
+     * Note 保留重复的第一个; 没有溢写时按源顺序输出, 溢写后按分区输出(分区内保持源顺序)
+     * Note 键的hashCode需要在编解码后保持一致(例: String/Long/自定义equals和hashCode的对象)
+     *
+     * @param source      源数据(只遍历一次)
+     * @param keyFun      生成键的方法(使用这个键来去重)
+     * @param codec       元素编解码
+     * @param maxInMemory 内存中最多保留的键数量
+     * @param sink        接收去重后的元素
+     * @param <T>         源类型
+     * @param <K>         键类型
+     * @return 去重后的元素数
+     * @throws java.io.UncheckedIOException 临时文件读写失败
+     */
+    public static <T, K> long externalDistinct(
+        Iterator<T> source, Function<T, K> keyFun, SpillCodec<T> codec, int maxInMemory, Consumer<T> sink
+    ) {
+        return externalDistinct(source, keyFun, codec, maxInMemory, DEFAULT_SPILL_PARTITIONS, null, sink);
+    }
+
+    /**
+     * 去重, 内存中的键超过maxInMemory后按键的hash溢写到临时文件分区, 逐个分区去重, 内存占用有上限
+     * Note 每个分区的不同键需要能放入内存, 数据量越大分区数需要越多
+     *
+     * @param source         源数据(只遍历一次)
+     * @param keyFun         生成键的方法(使用这个键来去重)
+     * @param codec          元素编解码
+     * @param maxInMemory    内存中最多保留的键数量
+     * @param partitionCount 溢写的分区数
+     * @param tempDir        临时文件目录, 为null时使用java.io.tmpdir
+     * @param sink           接收去重后的元素
+     * @param <T>            源类型
+     * @param <K>            键类型
+     * @return 去重后的元素数
+     * @throws java.io.UncheckedIOException 临时文件读写失败
+     */
+    public static <T, K> long externalDistinct(
+        Iterator<T> source, Function<T, K> keyFun, SpillCodec<T> codec,
+        int maxInMemory, int partitionCount, Path tempDir, Consumer<T> sink
+    ) {
+        return new ExternalPartitioner<>(keyFun, codec, maxInMemory, partitionCount, tempDir).distinct(source, sink);
+    }
+
+    /**
+     * 转map, 内存中的键超过maxInMemory后按键的hash溢写到临时文件分区, 逐个分区生成, 结果按键值对逐个输出
+     * Note 重复键保留后者; 键的hashCode需要在编解码后保持一致
+     *
+     * @param source      源数据(只遍历一次)
+     * @param keyFun      生成键的方法
+     * @param codec       元素编解码
+     * @param maxInMemory 内存中最多保留的键数量
+     * @param sink        接收键值对
+     * @param <T>         源类型
+     * @param <K>         键类型
+     * @return 键值对数
+     * @throws java.io.UncheckedIOException 临时文件读写失败
+     */
+    public static <T, K> long externalToMap(
+        Iterator<T> source, Function<T, K> keyFun, SpillCodec<T> codec, int maxInMemory, BiConsumer<K, T> sink
+    ) {
+        return externalToMap(source, keyFun, codec, maxInMemory, DEFAULT_SPILL_PARTITIONS, null, sink);
+    }
+
+    /**
+     * 转map, 内存中的键超过maxInMemory后按键的hash溢写到临时文件分区, 逐个分区生成, 结果按键值对逐个输出
+     * Note 每个分区的不同键需要能放入内存, 数据量越大分区数需要越多
+     *
+     * @param source         源数据(只遍历一次)
+     * @param keyFun         生成键的方法
+     * @param codec          元素编解码
+     * @param maxInMemory    内存中最多保留的键数量
+     * @param partitionCount 溢写的分区数
+     * @param tempDir        临时文件目录, 为null时使用java.io.tmpdir
+     * @param sink           接收键值对
+     * @param <T>            源类型
+     * @param <K>            键类型
+     * @return 键值对数
+     * @throws java.io.UncheckedIOException 临时文件读写失败
+     */
+    public static <T, K> long externalToMap(
+        Iterator<T> source, Function<T, K> keyFun, SpillCodec<T> codec,
+        int maxInMemory, int partitionCount, Path tempDir, BiConsumer<K, T> sink
+    ) {
+        return new ExternalPartitioner<>(keyFun, codec, maxInMemory, partitionCount, tempDir).toMap(source, sink);
+    }
+
+    /**
+     * 生成一个多索引builder, 注册多个唯一索引/分组索引/去重投影后一次遍历全部生成
+     * Note 代替对同一个列表多次调用toMap/distinct/groupingBy
+     *
+     * @param <R> 源类型
+     * @return builder
+     */
+    public static <R> MultiIndexBuilder<R> multiIndexBuilder() {
+        return new MultiIndexBuilder<>();
+    }
+
+    /**
+     * 生成一个分批转换配置, 默认每批500个, 最多同时执行4批, 不重试
+     * Note 会阻塞executor的线程直到convertFun返回, IO请求不要使用ForkJoinPool.commonPool()
+     *
+     * @param convertFun 批量转换的方法
+     * @param executor   执行每一批的线程池(也可以是虚拟线程的executor)
+     * @param <M>        中间类型
+     * @param <T>        目标类型
+     * @return 分批转换配置
+     */
+    public static <M, T> BatchEnricher<M, T> batchEnricher(Function<List<M>, List<T>> convertFun, Executor executor) {
+        return new BatchEnricher<>(convertFun, executor);
+    }
+
+    /**
+     * 给keyFun/mapFun加上有界缓存, 多个线程同时计算同一个键时只执行一次
+     * Note 原方法抛出异常时不缓存
+     *
+     * @param fun     原方法(例: 远程字典/配置查询)
+     * @param maxSize 最多缓存的键数量, 超出时按LRU淘汰
+     * @param <K>     键类型
+     * @param <V>     值类型
+     * @return 带缓存的Function
+     */
+    public static <K, V> MemoizedFunction<K, V> memoize(Function<K, V> fun, int maxSize) {
+        return memoize(fun, maxSize, 0, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 给keyFun/mapFun加上有界缓存, 写入后超过ttl的结果重新计算, 多个线程同时计算同一个键时只执行一次
+     * Note 原方法抛出异常时不缓存
+     *
+     * @param fun     原方法(例: 远程字典/配置查询)
+     * @param maxSize 最多缓存的键数量, 超出时按LRU淘汰
+     * @param ttl     过期时间(从写入开始计算), 小于等于0时不过期
+     * @param unit    时间单位
+     * @param <K>     键类型
+     * @param <V>     值类型
+     * @return 带缓存的Function
+     */
+    public static <K, V> MemoizedFunction<K, V> memoize(Function<K, V> fun, int maxSize, long ttl, TimeUnit unit) {
+        return new MemoizedFunction<>(fun, maxSize, ttl, unit, System::nanoTime);
+    }
+
     /**
      * 使用 Collectors.toMap 时的重复键策略(保留后者)
      *
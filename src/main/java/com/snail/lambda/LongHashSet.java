@@ -0,0 +1,124 @@
+package com.snail.lambda;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.lambda
+ * @Description: long的开放寻址set, add/contains不装箱(非线程安全)
+ * @date: 2026/10/18
+ */
+public final class LongHashSet {
+
+    private long[] keys;
+
+    private boolean hasZeroKey;
+
+    private int mask;
+
+    private int maxFill;
+
+    private int size;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * @param expectedSize 预计的元素数(按这个大小创建表, 不需要扩容)
+     */
+    public LongHashSet(int expectedSize) {
+        allocate(PrimitiveHash.tableSize(expectedSize, PrimitiveHash.DEFAULT_LOAD_FACTOR));
+    }
+
+    /**
+     * 添加
+     *
+     * @param key 值
+     * @return 是否是新的值
+     */
+    public boolean add(long key) {
+        if (key == 0) {
+            if (hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = true;
+            size++;
+            return true;
+        }
+        int index = PrimitiveHash.mix(key) & mask;
+        long current;
+        while ((current = keys[index]) != 0) {
+            if (current == key) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        if (++size > maxFill) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        int index = PrimitiveHash.mix(key) & mask;
+        long current;
+        while ((current = keys[index]) != 0) {
+            if (current == key) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 所有值(无序)
+     */
+    public long[] toArray() {
+        long[] result = new long[size];
+        int count = 0;
+        if (hasZeroKey) {
+            result[count++] = 0L;
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                result[count++] = key;
+            }
+        }
+        return result;
+    }
+
+    private void allocate(int tableSize) {
+        keys = new long[tableSize];
+        mask = tableSize - 1;
+        maxFill = PrimitiveHash.maxFill(tableSize, PrimitiveHash.DEFAULT_LOAD_FACTOR);
+    }
+
+    private void rehash(int tableSize) {
+        long[] oldKeys = keys;
+        allocate(tableSize);
+        for (long key : oldKeys) {
+            if (key != 0) {
+                int index = PrimitiveHash.mix(key) & mask;
+                while (keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.snail.lambda;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.lambda
+ * @Description: MemoizedFunction的统计快照
+ * @date: 2026/10/18
+ */
+public final class MemoStats {
+
+    private final int maxSize;
+
+    private final int size;
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long evictionCount;
+
+    private final long failureCount;
+
+    public MemoStats(int maxSize, int size, long hitCount, long missCount, long evictionCount, long failureCount) {
+        this.maxSize = maxSize;
+        this.size = size;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.failureCount = failureCount;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * 命中率, 没有请求时为1
+     *
+     * @return 命中率
+     */
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public String toString() {
+        return "MemoStats{" +
+            "maxSize=" + maxSize +
+            ", size=" + size +
+            ", hitCount=" + hitCount +
+            ", missCount=" + missCount +
+            ", evictionCount=" + evictionCount +
+            ", failureCount=" + failureCount +
+            '}';
+    }
+}
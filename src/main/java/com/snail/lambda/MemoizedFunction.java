@@ -0,0 +1,256 @@
+package com.snail.lambda;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.lambda
+ * @Description: 带缓存的Function, 有界(分段LRU淘汰), 可选过期时间, 记录命中/未命中/淘汰次数
+ * 多个线程同时计算同一个键时只执行一次原方法, 其他线程等待这次的结果(single-flight)
+ * 原方法抛出异常时不缓存, 等待的线程收到同一个异常
+ * @date: 2026/10/18
+ */
+public final class MemoizedFunction<K, V> implements Function<K, V> {
+
+    /**
+     * 容量小于这个值时不分段, 避免每段容量太小导致淘汰不准确
+     */
+    private static final int MIN_SEGMENT_CAPACITY = 64;
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private static final Object NULL_KEY = new Object();
+
+    private final Function<K, V> fun;
+
+    private final int maxSize;
+
+    private final long ttlNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final Segment<V>[] segments;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    private final LongAdder failureCount = new LongAdder();
+
+    /**
+     * @param fun       原方法
+     * @param maxSize   最多缓存的键数量
+     * @param ttl       过期时间, 小于等于0时不过期
+     * @param unit      时间单位
+     * @param nanoClock 纳秒时钟
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    MemoizedFunction(Function<K, V> fun, int maxSize, long ttl, TimeUnit unit, LongSupplier nanoClock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize必须大于0");
+        }
+        this.fun = fun;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl <= 0 ? 0 : unit.toNanos(ttl);
+        this.nanoClock = nanoClock;
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && maxSize / (segmentCount << 1) >= MIN_SEGMENT_CAPACITY) {
+            segmentCount <<= 1;
+        }
+        this.segments = (Segment<V>[]) new Segment[segmentCount];
+        int segmentCapacity = (maxSize + segmentCount - 1) / segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentCapacity, evictionCount);
+        }
+    }
+
+    @Override
+    public V apply(K key) {
+        Object mapKey = key == null ? NULL_KEY : key;
+        Segment<V> segment = segmentFor(mapKey);
+        long now = ttlNanos > 0 ? nanoClock.getAsLong() : 0L;
+
+        Node<V> node;
+        boolean owner = false;
+        synchronized (segment) {
+            node = segment.map.get(mapKey);
+            if (node != null && ttlNanos > 0 && node.isExpired(now)) {
+                segment.map.remove(mapKey);
+                node = null;
+            }
+            if (node == null) {
+                node = new Node<>(Thread.currentThread());
+                segment.map.put(mapKey, node);
+                owner = true;
+            }
+        }
+
+        if (!owner) {
+            hitCount.increment();
+            if (node.loadingThread == Thread.currentThread()) {
+                throw new IllegalStateException("计算键" + key + "时递归调用了同一个键");
+            }
+            return join(node.future);
+        }
+
+//        在锁外执行原方法, 同一个键的其他线程在future上等待
+        missCount.increment();
+        try {
+            V value = fun.apply(key);
+//            过期时间从计算完成时开始算, 计算时间超过ttl时结果也不会立刻过期
+            if (ttlNanos > 0) {
+                node.expireAt = nanoClock.getAsLong() + ttlNanos;
+            }
+            node.loadingThread = null;
+            node.future.complete(value);
+            return value;
+        } catch (Throwable e) {
+//            包括@SneakyThrows抛出的受检异常, 否则节点不会完成, 之后的调用会一直等待
+            failureCount.increment();
+            synchronized (segment) {
+                segment.map.remove(mapKey, node);
+            }
+            node.loadingThread = null;
+            node.future.completeExceptionally(e);
+            throw sneakyThrow(e);
+        }
+    }
+
+    /**
+     * 删除一个键的缓存
+     *
+     * @param key 键
+     */
+    public void invalidate(K key) {
+        Object mapKey = key == null ? NULL_KEY : key;
+        Segment<V> segment = segmentFor(mapKey);
+        synchronized (segment) {
+            segment.map.remove(mapKey);
+        }
+    }
+
+    /**
+     * 删除所有缓存
+     */
+    public void invalidateAll() {
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                segment.map.clear();
+            }
+        }
+    }
+
+    /**
+     * 缓存的键数量(包括正在计算和已经过期但还没有清理的)
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<V> segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 统计快照 命中包括等待其他线程计算的次数, 未命中即原方法的执行次数
+     *
+     * @return 统计
+     */
+    public MemoStats stats() {
+        return new MemoStats(maxSize, size(), hitCount.sum(), missCount.sum(), evictionCount.sum(), failureCount.sum());
+    }
+
+    @Override
+    public String toString() {
+        return "MemoizedFunction{" + stats() + '}';
+    }
+
+    private Segment<V> segmentFor(Object mapKey) {
+        int h = mapKey.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (segments.length - 1)];
+    }
+
+    /**
+     * 等待结果, 抛出原方法的原始异常
+     */
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw sneakyThrow(e.getCause() == null ? e : e.getCause());
+        }
+    }
+
+    /**
+     * 原样抛出异常(受检异常不包装)
+     */
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> RuntimeException sneakyThrow(Throwable e) throws E {
+        throw (E) e;
+    }
+
+    private static final class Segment<V> {
+
+        private final LinkedHashMap<Object, Node<V>> map;
+
+        @SuppressWarnings("serial")
+        Segment(int segmentCapacity, LongAdder evictionCount) {
+            this.map = new LinkedHashMap<Object, Node<V>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Node<V>> eldest) {
+//                    正在计算的键不淘汰(否则下一次调用会重复计算), 全部在计算时暂时超过容量
+                    Iterator<Node<V>> iterator = values().iterator();
+                    while (size() > segmentCapacity && iterator.hasNext()) {
+                        if (iterator.next().future.isDone()) {
+                            iterator.remove();
+                            evictionCount.increment();
+                        }
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    private static final class Node<V> {
+
+        private final CompletableFuture<V> future = new CompletableFuture<>();
+
+        /**
+         * 过期时间(纳秒), 计算完成时设置, 没有设置ttl时不使用
+         */
+        private volatile long expireAt;
+
+        /**
+         * 正在计算的线程, 计算完成后为null
+         */
+        private volatile Thread loadingThread;
+
+        Node(Thread loadingThread) {
+            this.loadingThread = loadingThread;
+        }
+
+        /**
+         * 正在计算的不算过期, 避免计算时间超过过期时间时重复计算
+         */
+        boolean isExpired(long now) {
+            return future.isDone() && now - expireAt >= 0;
+        }
+    }
+
+}
@@ -0,0 +1,359 @@
+package com.snail.lambda;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.lambda
+ * @Description: 一次遍历同时生成多个索引(唯一索引/分组索引/去重投影), 代替对同一个列表多次toMap/groupingBy
+ * 并行时每个线程生成部分索引, 再按列表顺序合并, 结果和串行一致
+ * <p>
+ * 例: MultiIndexBuilder&lt;Order&gt; builder = LambdaUtil.multiIndexBuilder();
+ * UniqueIndex&lt;Order, Long, Order&gt; byId = builder.unique(Order::getId);
+ * GroupIndex&lt;Order, Long, Order&gt; byUser = builder.group(Order::getUserId);
+ * MultiIndex&lt;Order&gt; index = builder.build(orderList);
+ * index.get(byId).get(1L)
+ * @date: 2026/10/18
+ */
+public final class MultiIndexBuilder<R> {
+
+    /**
+     * 并行时每块的最小大小
+     */
+    private static final int MIN_CHUNK_SIZE = 1 << 12;
+
+    private final List<Index<R, ?>> indexList = new ArrayList<>();
+
+    MultiIndexBuilder() {
+    }
+
+    /**
+     * 注册唯一索引, 重复键保留后者
+     *
+     * @param keyFun 生成键的方法
+     * @param <K>    键类型
+     * @return 索引标识, 用于从结果中获取索引
+     */
+    public <K> UniqueIndex<R, K, R> unique(Function<R, K> keyFun) {
+        return unique(keyFun, Function.identity());
+    }
+
+    /**
+     * 注册唯一索引, 重复键保留后者
+     *
+     * @param keyFun   生成键的方法
+     * @param valueFun 生成值的方法
+     * @param <K>      键类型
+     * @param <V>      值类型
+     * @return 索引标识, 用于从结果中获取索引
+     */
+    public <K, V> UniqueIndex<R, K, V> unique(Function<R, K> keyFun, Function<R, V> valueFun) {
+        return register(new UniqueIndex<>(keyFun, valueFun));
+    }
+
+    /**
+     * 注册分组索引, 组内保持列表顺序
+     *
+     * @param keyFun 生成键的方法
+     * @param <K>    键类型
+     * @return 索引标识, 用于从结果中获取索引
+     */
+    public <K> GroupIndex<R, K, R> group(Function<R, K> keyFun) {
+        return group(keyFun, Function.identity());
+    }
+
+    /**
+     * 注册分组索引, 组内保持列表顺序
+     *
+     * @param keyFun   生成键的方法
+     * @param valueFun 生成值的方法
+     * @param <K>      键类型
+     * @param <V>      值类型
+     * @return 索引标识, 用于从结果中获取索引
+     */
+    public <K, V> GroupIndex<R, K, V> group(Function<R, K> keyFun, Function<R, V> valueFun) {
+        return register(new GroupIndex<>(keyFun, valueFun));
+    }
+
+    /**
+     * 注册去重投影, 按第一次出现的顺序
+     *
+     * @param projectFun 投影方法
+     * @param <K>        投影类型
+     * @return 索引标识, 用于从结果中获取索引
+     */
+    public <K> DistinctIndex<R, K> distinct(Function<R, K> projectFun) {
+        return register(new DistinctIndex<>(projectFun));
+    }
+
+    /**
+     * 串行生成所有索引(一次遍历)
+     *
+     * @param sourceList 源列表
+     * @return 索引结果
+     */
+    public MultiIndex<R> build(List<R> sourceList) {
+        return build(sourceList, false);
+    }
+
+    /**
+     * 生成所有索引
+     *
+     * @param sourceList 源列表
+     * @param isParallel 是否并行(每块生成部分索引后按顺序合并)
+     * @return 索引结果
+     */
+    public MultiIndex<R> build(List<R> sourceList, boolean isParallel) {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        if (!isParallel || parallelism <= 1 || sourceList.size() < MIN_CHUNK_SIZE * 2) {
+            return build(sourceList, 1, MIN_CHUNK_SIZE);
+        }
+        return build(sourceList, parallelism, MIN_CHUNK_SIZE);
+    }
+
+    /**
+     * 按指定并行度生成(单核环境也可以验证分块合并)
+     */
+    MultiIndex<R> build(List<R> sourceList, int parallelism, int minChunkSize) {
+        Object[] items = sourceList.toArray();
+        Object[] accumulators;
+        if (parallelism <= 1) {
+            accumulators = accumulate(items, 0, items.length, items.length);
+        } else {
+            int chunkSize = Math.max(minChunkSize, items.length / (parallelism * 4));
+            accumulators = ForkJoinPool.commonPool().invoke(new BuildTask(items, 0, items.length, chunkSize));
+        }
+        Map<Index<R, ?>, Object> resultMap = new IdentityHashMap<>(indexList.size());
+        for (int i = 0; i < indexList.size(); i++) {
+            resultMap.put(indexList.get(i), accumulators[i]);
+        }
+        return new MultiIndex<>(resultMap);
+    }
+
+    private <I extends Index<R, ?>> I register(I index) {
+        indexList.add(index);
+        return index;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object[] accumulate(Object[] items, int from, int to, int expectedSize) {
+        int indexCount = indexList.size();
+        Object[] accumulators = new Object[indexCount];
+        @SuppressWarnings("rawtypes")
+        Index[] indexes = indexList.toArray(new Index[0]);
+        for (int i = 0; i < indexCount; i++) {
+            accumulators[i] = indexes[i].create(expectedSize);
+        }
+        for (int item = from; item < to; item++) {
+            R source = (R) items[item];
+            for (int i = 0; i < indexCount; i++) {
+                indexes[i].accept(accumulators[i], source);
+            }
+        }
+        return accumulators;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object[] merge(Object[] left, Object[] right) {
+        for (int i = 0; i < left.length; i++) {
+            left[i] = ((Index<R, Object>) indexList.get(i)).merge(left[i], right[i]);
+        }
+        return left;
+    }
+
+    @SuppressWarnings("serial")
+    private final class BuildTask extends RecursiveTask<Object[]> {
+
+        private final Object[] items;
+
+        private final int from;
+
+        private final int to;
+
+        private final int chunkSize;
+
+        BuildTask(Object[] items, int from, int to, int chunkSize) {
+            this.items = items;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected Object[] compute() {
+            if (to - from <= chunkSize) {
+                return accumulate(items, from, to, to - from);
+            }
+            int middle = (from + to) >>> 1;
+            BuildTask left = new BuildTask(items, from, middle, chunkSize);
+            left.fork();
+            Object[] right = new BuildTask(items, middle, to, chunkSize).compute();
+            return merge(left.join(), right);
+        }
+    }
+
+    /**
+     * 索引定义
+     *
+     * @param <R> 源类型
+     * @param <A> 生成过程中的中间结构
+     */
+    abstract static class Index<R, A> {
+
+        abstract A create(int expectedSize);
+
+        abstract void accept(A accumulator, R source);
+
+        /**
+         * 合并相邻的两块(left在前)
+         */
+        abstract A merge(A left, A right);
+
+        static int capacity(int expectedSize) {
+            return (int) (expectedSize / 0.75f) + 1;
+        }
+    }
+
+    /**
+     * 唯一索引 键 -> 值
+     */
+    public static final class UniqueIndex<R, K, V> extends Index<R, Map<K, V>> {
+
+        private final Function<R, K> keyFun;
+
+        private final Function<R, V> valueFun;
+
+        UniqueIndex(Function<R, K> keyFun, Function<R, V> valueFun) {
+            this.keyFun = keyFun;
+            this.valueFun = valueFun;
+        }
+
+        @Override
+        Map<K, V> create(int expectedSize) {
+            return new HashMap<>(capacity(expectedSize));
+        }
+
+        @Override
+        void accept(Map<K, V> accumulator, R source) {
+            accumulator.put(keyFun.apply(source), valueFun.apply(source));
+        }
+
+        @Override
+        Map<K, V> merge(Map<K, V> left, Map<K, V> right) {
+            left.putAll(right);
+            return left;
+        }
+    }
+
+    /**
+     * 分组索引 键 -> 值列表
+     */
+    public static final class GroupIndex<R, K, V> extends Index<R, Map<K, List<V>>> {
+
+        private final Function<R, K> keyFun;
+
+        private final Function<R, V> valueFun;
+
+        GroupIndex(Function<R, K> keyFun, Function<R, V> valueFun) {
+            this.keyFun = keyFun;
+            this.valueFun = valueFun;
+        }
+
+        @Override
+        Map<K, List<V>> create(int expectedSize) {
+//            分组数不超过元素数, 按元素数预分配(只是桶数组, 避免构建过程中扩容)
+            return new HashMap<>(capacity(expectedSize));
+        }
+
+        @Override
+        void accept(Map<K, List<V>> accumulator, R source) {
+            accumulator.computeIfAbsent(keyFun.apply(source), key -> new ArrayList<>()).add(valueFun.apply(source));
+        }
+
+        @Override
+        Map<K, List<V>> merge(Map<K, List<V>> left, Map<K, List<V>> right) {
+            right.forEach((key, values) -> {
+                List<V> leftValues = left.putIfAbsent(key, values);
+                if (leftValues != null) {
+                    leftValues.addAll(values);
+                }
+            });
+            return left;
+        }
+    }
+
+    /**
+     * 去重投影
+     */
+    public static final class DistinctIndex<R, K> extends Index<R, Set<K>> {
+
+        private final Function<R, K> projectFun;
+
+        DistinctIndex(Function<R, K> projectFun) {
+            this.projectFun = projectFun;
+        }
+
+        @Override
+        Set<K> create(int expectedSize) {
+            return new LinkedHashSet<>(capacity(expectedSize));
+        }
+
+        @Override
+        void accept(Set<K> accumulator, R source) {
+            accumulator.add(projectFun.apply(source));
+        }
+
+        @Override
+        Set<K> merge(Set<K> left, Set<K> right) {
+            left.addAll(right);
+            return left;
+        }
+    }
+
+    /**
+     * 索引结果
+     */
+    public static final class MultiIndex<R> {
+
+        private final Map<Index<R, ?>, Object> resultMap;
+
+        MultiIndex(Map<Index<R, ?>, Object> resultMap) {
+            this.resultMap = resultMap;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <K, V> Map<K, V> get(UniqueIndex<R, K, V> index) {
+            return (Map<K, V>) require(index);
+        }
+
+        @SuppressWarnings("unchecked")
+        public <K, V> Map<K, List<V>> get(GroupIndex<R, K, V> index) {
+            return (Map<K, List<V>>) require(index);
+        }
+
+        @SuppressWarnings("unchecked")
+        public <K> Set<K> get(DistinctIndex<R, K> index) {
+            return (Set<K>) require(index);
+        }
+
+        private Object require(Index<R, ?> index) {
+            Object result = resultMap.get(index);
+            if (result == null) {
+                throw new IllegalArgumentException("索引不是由这个builder注册的");
+            }
+            return result;
+        }
+    }
+
+}
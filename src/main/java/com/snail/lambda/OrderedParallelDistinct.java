@@ -0,0 +1,129 @@
+package com.snail.lambda;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.lambda
+ * @Description: 保持顺序的并行去重, 结果和串行去重一致(保留重复的第一个), 不使用全局共享的去重集合
+ * <p>
+ * 1. 列表分块, 每块并行在块内去重, 块内第一次出现的键按hash分区
+ * 2. 每个分区并行按块的顺序合并, 保留全局第一次出现的下标
+ * 3. 按下标顺序收集结果
+ * @date: 2026/10/18
+ */
+final class OrderedParallelDistinct {
+
+    private static final Object NULL_KEY = new Object();
+
+    private OrderedParallelDistinct() {
+    }
+
+    static <T, K> List<T> distinct(List<T> sourceList, Function<T, K> keyFun) {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+//        单核时分块只会增加开销
+        if (parallelism <= 1) {
+            return LambdaUtil.distinct(sourceList, keyFun);
+        }
+        return distinct(sourceList, keyFun, parallelism);
+    }
+
+    static <T, K> List<T> distinct(List<T> sourceList, Function<T, K> keyFun, int parallelism) {
+
+        Object[] items = sourceList.toArray();
+        int size = items.length;
+        int chunkCount = Math.min(size, parallelism * 4);
+        if (chunkCount <= 1) {
+            return LambdaUtil.distinct(sourceList, keyFun);
+        }
+        int partitionCount = Integer.highestOneBit(parallelism * 4 - 1) << 1;
+        int chunkSize = (size + chunkCount - 1) / chunkCount;
+
+//        [块][分区] -> 块内第一次出现的键和下标
+        KeyIndexBuffer[][] buffers = new KeyIndexBuffer[chunkCount][partitionCount];
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            int from = chunk * chunkSize;
+            int to = Math.min(size, from + chunkSize);
+            KeyIndexBuffer[] chunkBuffers = buffers[chunk];
+            Set<Object> localKeySet = new HashSet<>(Math.max(16, (int) ((to - from) / 0.75f) + 1));
+            for (int i = from; i < to; i++) {
+                @SuppressWarnings("unchecked")
+                K key = keyFun.apply((T) items[i]);
+                Object localKey = key == null ? NULL_KEY : key;
+                if (localKeySet.add(localKey)) {
+                    int partition = spread(localKey.hashCode()) & (partitionCount - 1);
+                    KeyIndexBuffer buffer = chunkBuffers[partition];
+                    if (buffer == null) {
+                        buffer = chunkBuffers[partition] = new KeyIndexBuffer();
+                    }
+                    buffer.add(localKey, i);
+                }
+            }
+        });
+
+//        每个分区的键只会出现在这个分区, 分区之间互不影响
+        boolean[] keep = new boolean[size];
+        IntStream.range(0, partitionCount).parallel().forEach(partition -> {
+            int expectedSize = 0;
+            for (KeyIndexBuffer[] chunkBuffers : buffers) {
+                expectedSize += chunkBuffers[partition] == null ? 0 : chunkBuffers[partition].size;
+            }
+            Set<Object> keySet = new HashSet<>(Math.max(16, (int) (expectedSize / 0.75f) + 1));
+            for (KeyIndexBuffer[] chunkBuffers : buffers) {
+                KeyIndexBuffer buffer = chunkBuffers[partition];
+                if (buffer == null) {
+                    continue;
+                }
+                for (int i = 0; i < buffer.size; i++) {
+                    if (keySet.add(buffer.keys[i])) {
+                        keep[buffer.indexes[i]] = true;
+                    }
+                }
+            }
+        });
+
+        List<T> result = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            if (keep[i]) {
+                @SuppressWarnings("unchecked")
+                T item = (T) items[i];
+                result.add(item);
+            }
+        }
+        return result;
+
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class KeyIndexBuffer {
+
+        private Object[] keys = new Object[8];
+
+        private int[] indexes = new int[8];
+
+        private int size;
+
+        void add(Object key, int index) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size << 1);
+                indexes = Arrays.copyOf(indexes, size << 1);
+            }
+            keys[size] = key;
+            indexes[size++] = index;
+        }
+    }
+
+}
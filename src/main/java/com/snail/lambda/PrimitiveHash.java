@@ -0,0 +1,51 @@
+package com.snail.lambda;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.lambda
+ * @Description: 基本类型开放寻址表的公共方法
+ * @date: 2026/10/18
+ */
+final class PrimitiveHash {
+
+    static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private PrimitiveHash() {
+    }
+
+    /**
+     * 打散int键(连续的id也能均匀分布)
+     */
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * 打散long键
+     */
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * 能容纳expectedSize个元素的表大小(2的幂)
+     */
+    static int tableSize(int expectedSize, float loadFactor) {
+        long size = (long) Math.ceil(Math.max(expectedSize, 2) / loadFactor);
+        if (size >= MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        return Math.max(4, Integer.highestOneBit((int) size - 1) << 1);
+    }
+
+    static int maxFill(int tableSize, float loadFactor) {
+        return Math.min(tableSize - 1, (int) Math.ceil(tableSize * loadFactor));
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.snail.lambda;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.lambda
+ * @Description: 溢写到磁盘时元素的编解码
+ * @date: 2026/10/18
+ */
+public interface SpillCodec<T> {
+
+    SpillCodec<String> STRING = new SpillCodec<String>() {
+        @Override
+        public void write(String value, DataOutput out) throws IOException {
+            out.writeUTF(value);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            return in.readUTF();
+        }
+    };
+
+    SpillCodec<Long> LONG = new SpillCodec<Long>() {
+        @Override
+        public void write(Long value, DataOutput out) throws IOException {
+            out.writeLong(value);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+
+    SpillCodec<Integer> INT = new SpillCodec<Integer>() {
+        @Override
+        public void write(Integer value, DataOutput out) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    /**
+     * 写入一个元素
+     *
+     * @param value 元素
+     * @param out   输出
+     * @throws IOException 写入失败
+     */
+    void write(T value, DataOutput out) throws IOException;
+
+    /**
+     * 读取一个元素
+     *
+     * @param in 输入
+     * @return 元素
+     * @throws IOException 读取失败
+     */
+    T read(DataInput in) throws IOException;
+
+}
@@ -0,0 +1,110 @@
+package com.snail.lambda;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.lambda
+ * @Description: 窗口内精确去重, 只记住最近maxKeys个不同的键, 或最近window时间内第一次出现的键, 超出窗口的键被淘汰
+ * 键被淘汰后再次出现会重新通过
+ * @date: 2026/10/18
+ */
+public final class WindowedDistinctPredicate<T, K> implements BoundedDistinctPredicate<T> {
+
+    /**
+     * LinkedHashMap.Entry(压缩指针) + Long时间戳 的估算字节数
+     */
+    private static final long ENTRY_BYTES = 40 + 16;
+
+    private static final Object NULL_KEY = new Object();
+
+    private final Function<T, K> keyFun;
+
+    private final int maxKeys;
+
+    private final long windowNanos;
+
+    private final LongSupplier nanoClock;
+
+    /**
+     * 键 -> 第一次出现的时间(纳秒), 按出现顺序排列
+     */
+    private final LinkedHashMap<Object, Long> keyMap;
+
+    /**
+     * @param keyFun    生成键的方法
+     * @param maxKeys   最多记住的键数量, 小于等于0时不限制
+     * @param window    时间窗口, 小于等于0时不限制
+     * @param unit      时间单位
+     * @param nanoClock 纳秒时钟
+     */
+    WindowedDistinctPredicate(Function<T, K> keyFun, int maxKeys, long window, TimeUnit unit, LongSupplier nanoClock) {
+        if (maxKeys <= 0 && window <= 0) {
+            throw new IllegalArgumentException("maxKeys和window至少需要设置一个");
+        }
+        this.keyFun = keyFun;
+        this.maxKeys = maxKeys;
+        this.windowNanos = window <= 0 ? 0 : unit.toNanos(window);
+        this.nanoClock = nanoClock;
+        this.keyMap = new LinkedHashMap<>(maxKeys > 0 ? Math.min((int) (maxKeys / 0.75f) + 1, 1 << 16) : 16);
+    }
+
+    @Override
+    public boolean test(T target) {
+        K key = keyFun.apply(target);
+        Object mapKey = key == null ? NULL_KEY : key;
+        long now = windowNanos > 0 ? nanoClock.getAsLong() : 0L;
+        if (windowNanos > 0) {
+            evictExpired(now);
+        }
+        if (keyMap.containsKey(mapKey)) {
+            return false;
+        }
+        keyMap.put(mapKey, now);
+        if (maxKeys > 0 && keyMap.size() > maxKeys) {
+            Iterator<Object> iterator = keyMap.keySet().iterator();
+            iterator.next();
+            iterator.remove();
+        }
+        return true;
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Map.Entry<Object, Long>> iterator = keyMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if (now - iterator.next().getValue() < windowNanos) {
+                return;
+            }
+            iterator.remove();
+        }
+    }
+
+    @Override
+    public long size() {
+        return keyMap.size();
+    }
+
+    @Override
+    public long memoryBytes() {
+        int tableSize = Integer.highestOneBit(Math.max((int) (keyMap.size() / 0.75f), 16) - 1) << 1;
+        return keyMap.size() * ENTRY_BYTES + tableSize * 4L;
+    }
+
+    @Override
+    public String toString() {
+        return "WindowedDistinctPredicate{" +
+            "maxKeys=" + maxKeys +
+            ", windowNanos=" + windowNanos +
+            ", size=" + size() +
+            ", memoryBytes=" + memoryBytes() +
+            '}';
+    }
+
+}
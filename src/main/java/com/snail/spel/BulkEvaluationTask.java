@@ -0,0 +1,117 @@
+package com.snail.spel;
+
+import org.springframework.expression.spel.SpelEvaluationException;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description: 同一个表达式批量解析多条记录, 每段记录复用一个上下文, 可拆分到ForkJoinPool并行执行
+ * @date: 2026/10/18
+ */
+@SuppressWarnings("serial")
+final class BulkEvaluationTask extends RecursiveAction {
+
+    /**
+     * 并行时每段最少的记录数
+     */
+    private static final int MIN_LEAF_SIZE = 256;
+
+    private final CachedExpression expression;
+
+    /**
+     * 根对象或变量map
+     */
+    private final Object[] sources;
+
+    private final boolean variableMode;
+
+    private final Class<?> valueClass;
+
+    private final Object[] results;
+
+    private final int from;
+
+    private final int to;
+
+    private final int leafSize;
+
+    private BulkEvaluationTask(
+        CachedExpression expression, Object[] sources, boolean variableMode, Class<?> valueClass,
+        Object[] results, int from, int to, int leafSize
+    ) {
+        this.expression = expression;
+        this.sources = sources;
+        this.variableMode = variableMode;
+        this.valueClass = valueClass;
+        this.results = results;
+        this.from = from;
+        this.to = to;
+        this.leafSize = leafSize;
+    }
+
+    /**
+     * 批量解析
+     *
+     * @param expression        表达式
+     * @param sources           根对象或变量map
+     * @param variableMode      sources是否为变量map
+     * @param valueClass        期待解析后的类型
+     * @param parallelThreshold 记录数达到这个值时并行解析
+     * @return 按输入顺序的值
+     */
+    static Object[] evaluate(
+        CachedExpression expression, Object[] sources, boolean variableMode, Class<?> valueClass, int parallelThreshold
+    ) {
+        Object[] results = new Object[sources.length];
+        if (sources.length < parallelThreshold) {
+            evaluate(expression, sources, variableMode, valueClass, results, 0, sources.length);
+            return results;
+        }
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int leafSize = Math.max(MIN_LEAF_SIZE, sources.length / (pool.getParallelism() * 4));
+        pool.invoke(new BulkEvaluationTask(
+            expression, sources, variableMode, valueClass, results, 0, sources.length, leafSize
+        ));
+        return results;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= leafSize) {
+            evaluate(expression, sources, variableMode, valueClass, results, from, to);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(
+            new BulkEvaluationTask(expression, sources, variableMode, valueClass, results, from, middle, leafSize),
+            new BulkEvaluationTask(expression, sources, variableMode, valueClass, results, middle, to, leafSize)
+        );
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void evaluate(
+        CachedExpression expression, Object[] sources, boolean variableMode, Class<?> valueClass,
+        Object[] results, int from, int to
+    ) {
+        RecyclableEvaluationContext context = new RecyclableEvaluationContext();
+        for (int i = from; i < to; i++) {
+            if (variableMode) {
+                context.reset(null, (Map<String, ?>) sources[i]);
+            } else {
+                context.reset(sources[i], null);
+            }
+            try {
+                results[i] = expression.getValue(context, valueClass);
+            } catch (SpelEvaluationException e) {
+                results[i] = null;
+            }
+        }
+    }
+
+}
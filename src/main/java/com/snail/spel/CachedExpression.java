@@ -0,0 +1,220 @@
+package com.snail.spel;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.ast.Literal;
+import org.springframework.expression.spel.standard.SpelExpression;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description: 缓存中的el表达式, 记录编译状态, 无法编译的表达式单独降级为解释执行
+ * @date: 2026/10/18
+ */
+final class CachedExpression {
+
+    /**
+     * MIXED模式下解释执行多少次后尝试编译(与spring的阈值保持一致)
+     */
+    private static final int MIXED_COMPILE_THRESHOLD = 100;
+
+    private final String expressionString;
+
+    private volatile Expression expression;
+
+    /**
+     * 简单的变量属性路径表达式, 直接读取不经过spel
+     */
+    private final PropertyPathExpression propertyPath;
+
+    /**
+     * 字面量表达式作为condition时的值(如 true false null), 不是字面量时为null
+     */
+    private final Boolean constantCondition;
+
+    /**
+     * 模板表达式(#{}), 不是模板时为null
+     */
+    private final TemplateExpression template;
+
+    private volatile SpelCompileStatus compileStatus;
+
+    private final int compileThreshold;
+
+    private final AtomicInteger pendingCount = new AtomicInteger();
+
+    CachedExpression(String expressionString, Expression expression, SpelCompilerMode compilerMode) {
+        this.expressionString = expressionString;
+        this.expression = expression;
+        this.propertyPath = expression instanceof SpelExpression ? PropertyPathExpression.parse(expressionString) : null;
+        this.constantCondition = foldCondition(expression);
+        this.template = null;
+        if (compilerMode == SpelCompilerMode.OFF || !(expression instanceof SpelExpression)) {
+            this.compileStatus = SpelCompileStatus.INTERPRETED;
+            this.compileThreshold = 0;
+        } else {
+//            IMMEDIATE模式在第一次解释执行后(类型已确定)就编译
+            this.compileStatus = SpelCompileStatus.PENDING;
+            this.compileThreshold = compilerMode == SpelCompilerMode.IMMEDIATE ? 1 : MIXED_COMPILE_THRESHOLD;
+        }
+    }
+
+    /**
+     * 模板表达式, 各#{}部分单独编译, 模板本身视为解释执行
+     */
+    private CachedExpression(String expressionString, Expression expression, TemplateExpression template) {
+        this.expressionString = expressionString;
+        this.expression = expression;
+        this.propertyPath = null;
+        this.constantCondition = null;
+        this.template = template;
+        this.compileStatus = SpelCompileStatus.INTERPRETED;
+        this.compileThreshold = 0;
+    }
+
+    /**
+     * 创建模板表达式
+     *
+     * @param expressionString 模板
+     * @param expression       ParserContext.TEMPLATE_EXPRESSION解析的表达式
+     * @param compilerMode     解析器的编译模式
+     * @return 缓存的表达式
+     */
+    static CachedExpression ofTemplate(String expressionString, Expression expression, SpelCompilerMode compilerMode) {
+        return new CachedExpression(expressionString, expression, TemplateExpression.of(expression, compilerMode));
+    }
+
+    /**
+     * 解析el值
+     *
+     * @param context    当前上下文
+     * @param valueClass 期待解析后的类型
+     * @param <T>        解析后的类型
+     * @return 值
+     */
+    <T> T getValue(EvaluationContext context, Class<T> valueClass) {
+        SpelEvaluationListener listener = SpelUtil.getEvaluationListener();
+        if (listener == null) {
+            return doGetValue(context, valueClass);
+        }
+        long start = System.nanoTime();
+        T value;
+        try {
+            value = doGetValue(context, valueClass);
+        } catch (RuntimeException e) {
+            listener.onFailure(expressionString, System.nanoTime() - start, e);
+            throw e;
+        }
+        listener.onEvaluation(expressionString, System.nanoTime() - start);
+        return value;
+    }
+
+    /**
+     * 解析el值, 不通知监听器(模板的各部分使用, 由模板统一通知)
+     */
+    <T> T doGetValue(EvaluationContext context, Class<T> valueClass) {
+        if (template != null) {
+            return PropertyPathExpression.convert(context, new TypedValue(template.render(context)), valueClass);
+        }
+        if (propertyPath != null) {
+            TypedValue typedValue = propertyPath.getValue(context);
+            if (typedValue != null) {
+                return PropertyPathExpression.convert(context, typedValue, valueClass);
+            }
+        }
+        T value;
+        try {
+            value = this.expression.getValue(context, valueClass);
+        } catch (SpelEvaluationException e) {
+            if (e.getMessageCode() != SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION) {
+                throw e;
+            }
+//            编译后的字节码执行失败(比如入参类型变了) 降级后重新解释执行
+            fallback(e);
+            return this.expression.getValue(context, valueClass);
+        }
+        if (this.compileStatus == SpelCompileStatus.PENDING) {
+            checkCompile();
+        }
+        return value;
+    }
+
+    String getExpressionString() {
+        return expressionString;
+    }
+
+    Expression getExpression() {
+        return expression;
+    }
+
+    PropertyPathExpression getPropertyPath() {
+        return propertyPath;
+    }
+
+    TemplateExpression getTemplate() {
+        return template;
+    }
+
+    Boolean getConstantCondition() {
+        return constantCondition;
+    }
+
+    SpelCompileStatus getCompileStatus() {
+        return compileStatus;
+    }
+
+    private static Boolean foldCondition(Expression expression) {
+        if (!(expression instanceof SpelExpression) || !(((SpelExpression) expression).getAST() instanceof Literal)) {
+            return null;
+        }
+        try {
+//            和SpelUtil#getValue一致 解析失败或为null时视为false
+            return Boolean.TRUE.equals(expression.getValue(Boolean.class));
+        } catch (SpelEvaluationException e) {
+            return Boolean.FALSE;
+        }
+    }
+
+    private void checkCompile() {
+        if (pendingCount.incrementAndGet() < compileThreshold) {
+            return;
+        }
+        synchronized (this) {
+            if (this.compileStatus != SpelCompileStatus.PENDING) {
+                return;
+            }
+            if (((SpelExpression) this.expression).compileExpression()) {
+                this.compileStatus = SpelCompileStatus.COMPILED;
+                notifyCompileStatus();
+            } else {
+                fallback(null);
+            }
+        }
+    }
+
+    private synchronized void fallback(Throwable cause) {
+        if (this.compileStatus == SpelCompileStatus.FALLBACK) {
+            return;
+        }
+        this.expression = SpelUtil.parseInterpretedExpression(expressionString);
+        this.compileStatus = SpelCompileStatus.FALLBACK;
+        SpelUtil.reportCompileFallback(expressionString, cause);
+        notifyCompileStatus();
+    }
+
+    private void notifyCompileStatus() {
+        SpelEvaluationListener listener = SpelUtil.getEvaluationListener();
+        if (listener != null) {
+            listener.onCompileStatusChange(expressionString, compileStatus);
+        }
+    }
+
+}
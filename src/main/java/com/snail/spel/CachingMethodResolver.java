@@ -0,0 +1,100 @@
+package com.snail.spel;
+
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.expression.AccessException;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.MethodExecutor;
+import org.springframework.expression.spel.support.ReflectiveMethodResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description: 按目标类缓存解析结果的方法解析器, 所有共享上下文使用同一个实例
+ * 只能用于类型转换器相同的上下文(解析结果依赖类型转换器)
+ * @date: 2026/10/18
+ */
+final class CachingMethodResolver extends ReflectiveMethodResolver {
+
+    private static final MethodExecutor NOT_FOUND = (context, target, arguments) -> {
+        throw new AccessException("method not found");
+    };
+
+    /**
+     * 目标类 -> (方法名 + 入参类型) -> 方法执行器
+     * 使用ClassValue 类卸载时缓存一起回收
+     */
+    private final ClassValue<Map<MethodKey, MethodExecutor>> instanceMethodCache = new MethodCache();
+
+    /**
+     * 静态方法调用(T(xxx).method())的缓存
+     */
+    private final ClassValue<Map<MethodKey, MethodExecutor>> staticMethodCache = new MethodCache();
+
+    @Override
+    public MethodExecutor resolve(
+        EvaluationContext context, Object targetObject, String name, List<TypeDescriptor> argumentTypes
+    ) throws AccessException {
+        if (targetObject == null) {
+            return super.resolve(context, null, name, argumentTypes);
+        }
+        Map<MethodKey, MethodExecutor> cache = targetObject instanceof Class
+            ? staticMethodCache.get((Class<?>) targetObject)
+            : instanceMethodCache.get(targetObject.getClass());
+        MethodKey key = new MethodKey(name, argumentTypes);
+        MethodExecutor executor = cache.get(key);
+        if (executor == null) {
+            executor = super.resolve(context, targetObject, name, argumentTypes);
+            cache.putIfAbsent(new MethodKey(name, new ArrayList<>(argumentTypes)), executor == null ? NOT_FOUND : executor);
+            return executor;
+        }
+        return executor == NOT_FOUND ? null : executor;
+    }
+
+    private static final class MethodCache extends ClassValue<Map<MethodKey, MethodExecutor>> {
+        @Override
+        protected Map<MethodKey, MethodExecutor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    }
+
+    private static final class MethodKey {
+
+        private final String name;
+
+        private final List<TypeDescriptor> argumentTypes;
+
+        private final int hash;
+
+        MethodKey(String name, List<TypeDescriptor> argumentTypes) {
+            this.name = name;
+            this.argumentTypes = argumentTypes;
+            this.hash = 31 * name.hashCode() + argumentTypes.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MethodKey)) {
+                return false;
+            }
+            MethodKey that = (MethodKey) o;
+            return name.equals(that.name) && Objects.equals(argumentTypes, that.argumentTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.snail.spel;
+
+import java.util.List;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description: 多个监听器合并成一个, 依次通知
+ * @date: 2026/10/18
+ */
+final class CompositeEvaluationListener implements SpelEvaluationListener {
+
+    private final SpelEvaluationListener[] listeners;
+
+    private CompositeEvaluationListener(SpelEvaluationListener[] listeners) {
+        this.listeners = listeners;
+    }
+
+    /**
+     * 合并监听器
+     *
+     * @param listeners 监听器列表
+     * @return 没有监听器时为null, 只有一个时直接返回
+     */
+    static SpelEvaluationListener of(List<SpelEvaluationListener> listeners) {
+        if (listeners.isEmpty()) {
+            return null;
+        }
+        if (listeners.size() == 1) {
+            return listeners.get(0);
+        }
+        return new CompositeEvaluationListener(listeners.toArray(new SpelEvaluationListener[0]));
+    }
+
+    @Override
+    public void onCacheHit(String expression) {
+        for (SpelEvaluationListener listener : listeners) {
+            listener.onCacheHit(expression);
+        }
+    }
+
+    @Override
+    public void onCacheMiss(String expression) {
+        for (SpelEvaluationListener listener : listeners) {
+            listener.onCacheMiss(expression);
+        }
+    }
+
+    @Override
+    public void onParse(String expression, long elapsedNanos) {
+        for (SpelEvaluationListener listener : listeners) {
+            listener.onParse(expression, elapsedNanos);
+        }
+    }
+
+    @Override
+    public void onEvaluation(String expression, long elapsedNanos) {
+        for (SpelEvaluationListener listener : listeners) {
+            listener.onEvaluation(expression, elapsedNanos);
+        }
+    }
+
+    @Override
+    public void onFailure(String expression, long elapsedNanos, RuntimeException exception) {
+        for (SpelEvaluationListener listener : listeners) {
+            listener.onFailure(expression, elapsedNanos, exception);
+        }
+    }
+
+    @Override
+    public void onCompileStatusChange(String expression, SpelCompileStatus status) {
+        for (SpelEvaluationListener listener : listeners) {
+            listener.onCompileStatusChange(expression, status);
+        }
+    }
+
+}
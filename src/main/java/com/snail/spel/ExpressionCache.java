@@ -0,0 +1,241 @@
+package com.snail.spel;
+
+import org.springframework.expression.spel.SpelCompilerMode;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description: 有界的el表达式缓存, 分段近似LRU淘汰(读取不加锁), 记录命中/未命中/淘汰次数
+ * @date: 2026/10/18
+ */
+final class ExpressionCache {
+
+    /**
+     * 容量小于这个值时不分段, 避免每段容量太小导致淘汰不准确
+     */
+    private static final int MIN_SEGMENT_CAPACITY = 64;
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final int capacity;
+
+    private final Segment[] segments;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    ExpressionCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("缓存容量必须大于0");
+        }
+        this.capacity = capacity;
+        int segmentCount = 1;
+        while (segmentCount < MAX_SEGMENTS && capacity / (segmentCount << 1) >= MIN_SEGMENT_CAPACITY) {
+            segmentCount <<= 1;
+        }
+        this.segments = new Segment[segmentCount];
+        int segmentCapacity = (capacity + segmentCount - 1) / segmentCount;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * 获取缓存的表达式, 不存在时解析后放入缓存
+     *
+     * @param expression   el表达式
+     * @param compilerMode 解析器的编译模式
+     * @param template     是否为模板表达式(同一个字符串作为模板和普通表达式的解析结果不同)
+     * @param parser       解析方法(在锁外执行)
+     * @return 缓存的表达式
+     */
+    CachedExpression get(String expression, SpelCompilerMode compilerMode, boolean template, Supplier<CachedExpression> parser) {
+        Key key = new Key(expression, compilerMode, template);
+        Segment segment = segmentFor(key);
+        CachedExpression cached = segment.get(key);
+        if (cached != null) {
+            hitCount.increment();
+            return cached;
+        }
+        missCount.increment();
+        return segment.putIfAbsent(key, parser.get());
+    }
+
+    /**
+     * 获取缓存的表达式, 不影响淘汰顺序和统计
+     *
+     * @param expression   el表达式
+     * @param compilerMode 解析器的编译模式
+     * @param template     是否为模板表达式
+     * @return 缓存的表达式, 不存在时为null
+     */
+    CachedExpression peek(String expression, SpelCompilerMode compilerMode, boolean template) {
+        Key key = new Key(expression, compilerMode, template);
+        return segmentFor(key).peek(key);
+    }
+
+    void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    ExpressionCacheStats stats() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return new ExpressionCacheStats(
+            capacity, size, hitCount.sum(), missCount.sum(), evictionCount.sum()
+        );
+    }
+
+    private Segment segmentFor(Key key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (segments.length - 1)];
+    }
+
+    /**
+     * 读取不加锁(ConcurrentHashMap), 命中时只记录访问时间戳
+     * 放入时加锁, 超过容量后淘汰时间戳最小(最久未访问)的表达式
+     */
+    private final class Segment {
+
+        private final ConcurrentHashMap<Key, Entry> map = new ConcurrentHashMap<>();
+
+        private final int segmentCapacity;
+
+        /**
+         * 访问时钟, 每次放入时加1(在锁内修改)
+         */
+        private volatile long clock;
+
+        Segment(int segmentCapacity) {
+            this.segmentCapacity = segmentCapacity;
+        }
+
+        CachedExpression get(Key key) {
+            Entry entry = map.get(key);
+            if (entry == null) {
+                return null;
+            }
+            long now = clock;
+//            时间戳没有变化时不写, 避免热点表达式反复写同一个缓存行
+            if (entry.accessTime != now) {
+                entry.accessTime = now;
+            }
+            return entry.value;
+        }
+
+        CachedExpression peek(Key key) {
+            Entry entry = map.get(key);
+            return entry == null ? null : entry.value;
+        }
+
+        synchronized CachedExpression putIfAbsent(Key key, CachedExpression value) {
+//            并发解析同一个表达式时 以先放入的为准
+            Entry existing = map.get(key);
+            if (existing != null) {
+                return existing.value;
+            }
+            long now = ++clock;
+            map.put(key, new Entry(value, now));
+            if (map.size() > segmentCapacity) {
+                evictEldest();
+            }
+            return value;
+        }
+
+        synchronized void clear() {
+            map.clear();
+        }
+
+        int size() {
+            return map.size();
+        }
+
+        /**
+         * 淘汰最久未访问的表达式 只在放入新表达式且超过容量时执行(已经是解析表达式的慢路径)
+         */
+        private void evictEldest() {
+            Key eldestKey = null;
+            long eldestTime = Long.MAX_VALUE;
+            for (Map.Entry<Key, Entry> entry : map.entrySet()) {
+                long accessTime = entry.getValue().accessTime;
+                if (accessTime < eldestTime) {
+                    eldestTime = accessTime;
+                    eldestKey = entry.getKey();
+                }
+            }
+            if (eldestKey != null && map.remove(eldestKey) != null) {
+                evictionCount.increment();
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        private final CachedExpression value;
+
+        /**
+         * 最后一次访问时的时钟
+         */
+        private volatile long accessTime;
+
+        Entry(CachedExpression value, long accessTime) {
+            this.value = value;
+            this.accessTime = accessTime;
+        }
+    }
+
+    /**
+     * 缓存键 表达式 + 解析器配置 + 是否为模板
+     */
+    private static final class Key {
+
+        private final String expression;
+
+        private final SpelCompilerMode compilerMode;
+
+        private final boolean template;
+
+        private final int hash;
+
+        Key(String expression, SpelCompilerMode compilerMode, boolean template) {
+            this.expression = expression;
+            this.compilerMode = compilerMode;
+            this.template = template;
+            this.hash = 31 * (31 * expression.hashCode() + compilerMode.hashCode()) + (template ? 1 : 0);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return compilerMode == key.compilerMode && template == key.template && Objects.equals(expression, key.expression);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.snail.spel;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description: el表达式缓存的统计快照
+ * @date: 2026/10/18
+ */
+public final class ExpressionCacheStats {
+
+    private final int capacity;
+
+    private final int size;
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long evictionCount;
+
+    public ExpressionCacheStats(int capacity, int size, long hitCount, long missCount, long evictionCount) {
+        this.capacity = capacity;
+        this.size = size;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 命中率, 没有请求时为1
+     *
+     * @return 命中率
+     */
+    public double getHitRate() {
+        long requestCount = hitCount + missCount;
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ExpressionCacheStats{" +
+            "capacity=" + capacity +
+            ", size=" + size +
+            ", hitCount=" + hitCount +
+            ", missCount=" + missCount +
+            ", evictionCount=" + evictionCount +
+            '}';
+    }
+}
@@ -0,0 +1,71 @@
+package com.snail.spel;
+
+import org.springframework.expression.TypedValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description: 方法入参上下文, 入参按模板的下标直接读取
+ * @date: 2026/10/18
+ */
+final class MethodInvocationEvaluationContext extends SharedEvaluationContext {
+
+    private final MethodSpelTemplate template;
+
+    private final Object[] args;
+
+    /**
+     * 表达式中赋值的变量, 用到时才创建
+     */
+    private Map<String, Object> variableMap;
+
+    MethodInvocationEvaluationContext(MethodSpelTemplate template, Object[] args) {
+        this.template = template;
+        this.args = args;
+    }
+
+    @Override
+    public TypedValue getRootObject() {
+        return TypedValue.NULL;
+    }
+
+    @Override
+    public void setVariable(String name, Object value) {
+        if (variableMap == null) {
+            variableMap = new HashMap<>();
+        }
+        variableMap.put(name, value);
+    }
+
+    @Override
+    public Object lookupVariable(String name) {
+        if (variableMap != null && variableMap.containsKey(name)) {
+            return variableMap.get(name);
+        }
+        int index = template.indexOf(name);
+        return index < 0 ? null : template.getArgument(args, index);
+    }
+
+    /**
+     * 表达式中是否给变量赋过值(赋值后不能再按下标直接读取入参)
+     *
+     * @return 是否赋过值
+     */
+    boolean hasAssignedVariables() {
+        return variableMap != null;
+    }
+
+    MethodSpelTemplate getTemplate() {
+        return template;
+    }
+
+    Object[] getArgs() {
+        return args;
+    }
+
+}
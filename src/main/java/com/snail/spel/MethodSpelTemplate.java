@@ -0,0 +1,88 @@
+package com.snail.spel;
+
+import org.springframework.core.ParameterNameDiscoverer;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description: 方法的el上下文模板, 第一次使用时解析好入参名称和下标, 之后每次调用只需要创建轻量的上下文
+ * @date: 2026/10/18
+ */
+final class MethodSpelTemplate {
+
+    private final Method method;
+
+    private final int paramCount;
+
+    /**
+     * 变量名 -> 入参下标(包含a0 p0这种下标变量)
+     */
+    private final Map<String, Integer> variableIndexMap;
+
+    MethodSpelTemplate(Method method, ParameterNameDiscoverer discoverer) {
+        this.method = method;
+//        获取入参名称
+        String[] paramNames = discoverer.getParameterNames(method);
+        this.paramCount = paramNames != null ? paramNames.length : method.getParameterCount();
+        Map<String, Integer> variableIndexMap = new HashMap<>(paramCount * 4);
+//        和MethodBasedEvaluationContext的变量规则保持一致
+        for (int i = 0; i < paramCount; i++) {
+            variableIndexMap.put("a" + i, i);
+            variableIndexMap.put("p" + i, i);
+            if (paramNames != null && paramNames[i] != null) {
+                variableIndexMap.put(paramNames[i], i);
+            }
+        }
+        this.variableIndexMap = Collections.unmodifiableMap(variableIndexMap);
+    }
+
+    /**
+     * 创建这次调用的上下文
+     *
+     * @param args 目标方法的入参
+     * @return 上下文
+     */
+    MethodInvocationEvaluationContext createContext(Object[] args) {
+        return new MethodInvocationEvaluationContext(this, args);
+    }
+
+    /**
+     * 获取变量对应的入参下标
+     *
+     * @param name 变量名
+     * @return 下标, 不是入参变量时为-1
+     */
+    int indexOf(String name) {
+        Integer index = variableIndexMap.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * 获取入参值
+     *
+     * @param args  目标方法的入参
+     * @param index 入参下标
+     * @return 入参值
+     */
+    Object getArgument(Object[] args, int index) {
+        int argsCount = args == null ? 0 : args.length;
+        if (argsCount > paramCount && index == paramCount - 1) {
+//            多出来的入参作为可变参数数组给最后一个参数
+            return Arrays.copyOfRange(args, index, argsCount);
+        }
+        return argsCount > index ? args[index] : null;
+    }
+
+    Method getMethod() {
+        return method;
+    }
+
+}
@@ -0,0 +1,293 @@
+package com.snail.spel;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.common.ExpressionUtils;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description: 简单的变量属性路径表达式(#userId #order.id #p0.tenant.code), 跳过spel直接通过MethodHandle读取
+ * 读取规则与ReflectivePropertyAccessor一致, 无法处理的情况返回null交给spel处理
+ * @date: 2026/10/18
+ */
+final class PropertyPathExpression {
+
+    private static final Pattern PROPERTY_PATH_PATTERN =
+        Pattern.compile("#[A-Za-z_$][\\w$]*(\\.[A-Za-z_$][\\w$]*)*");
+
+    /**
+     * spel中有特殊含义的名称, 不走直接读取
+     */
+    private static final Set<String> RESERVED_NAMES = new HashSet<>(Arrays.asList(
+        "root", "this", "and", "or", "not", "div", "mod", "eq", "ne", "lt", "le", "gt", "ge",
+        "between", "instanceof", "matches", "true", "false", "null", "new"
+    ));
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final PropertyGetter NOT_FOUND = new PropertyGetter(null, null);
+
+    /**
+     * 类 -> 属性名 -> 读取方法
+     */
+    private static final ClassValue<Map<String, PropertyGetter>> GETTER_CACHE = new ClassValue<Map<String, PropertyGetter>>() {
+        @Override
+        protected Map<String, PropertyGetter> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final String variableName;
+
+    private final String[] propertyNames;
+
+    /**
+     * 上一次使用的方法模板和变量下标
+     */
+    private volatile VariableIndex variableIndex;
+
+    private PropertyPathExpression(String variableName, String[] propertyNames) {
+        this.variableName = variableName;
+        this.propertyNames = propertyNames;
+    }
+
+    /**
+     * 识别简单的变量属性路径表达式
+     *
+     * @param expression el表达式
+     * @return 不是简单路径时为null
+     */
+    static PropertyPathExpression parse(String expression) {
+        if (expression == null) {
+            return null;
+        }
+        String trimmed = expression.trim();
+        if (!PROPERTY_PATH_PATTERN.matcher(trimmed).matches()) {
+            return null;
+        }
+        String[] names = StringUtils.delimitedListToStringArray(trimmed.substring(1), ".");
+        for (String name : names) {
+            if (RESERVED_NAMES.contains(name.toLowerCase(Locale.ROOT))) {
+                return null;
+            }
+        }
+        return new PropertyPathExpression(names[0], Arrays.copyOfRange(names, 1, names.length));
+    }
+
+    /**
+     * 直接读取值
+     *
+     * @param context 当前上下文
+     * @return 值, 需要交给spel处理时为null
+     */
+    TypedValue getValue(EvaluationContext context) {
+        if (propertyNames.length > 0 && !isDefaultPropertyAccessor(context)) {
+            return null;
+        }
+        Object value = lookupVariable(context);
+        TypeDescriptor typeDescriptor = null;
+        for (String propertyName : propertyNames) {
+//            null上读属性和Class上读静态属性交给spel(抛出同样的异常)
+            if (value == null || value instanceof Class) {
+                return null;
+            }
+            PropertyGetter getter = findGetter(value.getClass(), propertyName);
+            if (getter == NOT_FOUND) {
+                return null;
+            }
+            try {
+                value = (Object) getter.handle.invokeExact(value);
+            } catch (Throwable ex) {
+                throw new SpelEvaluationException(ex, SpelMessage.EXCEPTION_DURING_PROPERTY_READ, propertyName, ex.getMessage());
+            }
+            typeDescriptor = getter.typeDescriptor;
+        }
+        if (typeDescriptor == null || value == null) {
+            return new TypedValue(value);
+        }
+        return new TypedValue(value, typeDescriptor.narrow(value));
+    }
+
+    /**
+     * 转换成期待的类型, 和spel的转换规则一致
+     *
+     * @param context    当前上下文
+     * @param typedValue 值
+     * @param valueClass 期待解析后的类型
+     * @param <T>        解析后的类型
+     * @return 值
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T convert(EvaluationContext context, TypedValue typedValue, Class<T> valueClass) {
+        Object value = typedValue.getValue();
+        if (valueClass == null || valueClass.isInstance(value)) {
+            return (T) value;
+        }
+        return ExpressionUtils.convertTypedValue(context, typedValue, valueClass);
+    }
+
+    String getVariableName() {
+        return variableName;
+    }
+
+    boolean isVariableOnly() {
+        return propertyNames.length == 0;
+    }
+
+    private Object lookupVariable(EvaluationContext context) {
+        if (context instanceof MethodInvocationEvaluationContext) {
+            MethodInvocationEvaluationContext invocationContext = (MethodInvocationEvaluationContext) context;
+            if (!invocationContext.hasAssignedVariables()) {
+                MethodSpelTemplate template = invocationContext.getTemplate();
+                VariableIndex index = this.variableIndex;
+                if (index == null || index.template != template) {
+                    index = new VariableIndex(template, template.indexOf(variableName));
+                    this.variableIndex = index;
+                }
+                return index.index < 0 ? null : template.getArgument(invocationContext.getArgs(), index.index);
+            }
+        }
+        return context.lookupVariable(variableName);
+    }
+
+    /**
+     * 只有上下文只使用默认的ReflectivePropertyAccessor时, 直接读取的结果才和spel一致
+     */
+    private static boolean isDefaultPropertyAccessor(EvaluationContext context) {
+        List<PropertyAccessor> accessors = context.getPropertyAccessors();
+        return accessors.size() == 1 && accessors.get(0).getClass() == ReflectivePropertyAccessor.class;
+    }
+
+    private static PropertyGetter findGetter(Class<?> type, String propertyName) {
+        Map<String, PropertyGetter> getterMap = GETTER_CACHE.get(type);
+        PropertyGetter getter = getterMap.get(propertyName);
+        if (getter == null) {
+            getter = getterMap.computeIfAbsent(propertyName, name -> createGetter(type, name));
+        }
+        return getter;
+    }
+
+    private static PropertyGetter createGetter(Class<?> type, String propertyName) {
+        try {
+            if (type.isArray() && "length".equals(propertyName)) {
+                MethodHandle handle = MethodHandles.lookup()
+                    .findStatic(Array.class, "getLength", MethodType.methodType(int.class, Object.class));
+                return new PropertyGetter(handle.asType(GETTER_TYPE), null);
+            }
+//            与ReflectivePropertyAccessor的查找顺序一致 get -> is -> public字段
+            Method method = findMethod(type, "get", propertyName, false);
+            if (method == null) {
+                method = findMethod(type, "is", propertyName, true);
+            }
+            if (method != null) {
+                if (Modifier.isStatic(method.getModifiers())) {
+                    return NOT_FOUND;
+                }
+                TypeDescriptor typeDescriptor = new TypeDescriptor(new MethodParameter(method, -1));
+                method = ClassUtils.getInterfaceMethodIfPossible(method);
+                ReflectionUtils.makeAccessible(method);
+                return new PropertyGetter(MethodHandles.lookup().unreflect(method).asType(GETTER_TYPE), typeDescriptor);
+            }
+            Field field = findField(type, propertyName);
+            if (field != null) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    return NOT_FOUND;
+                }
+                ReflectionUtils.makeAccessible(field);
+                return new PropertyGetter(
+                    MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE), new TypeDescriptor(field)
+                );
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+//            无法直接访问的交给spel处理
+            return NOT_FOUND;
+        }
+        return NOT_FOUND;
+    }
+
+    private static Method findMethod(Class<?> type, String prefix, String propertyName, boolean booleanOnly) {
+        Method[] methods = type.getMethods();
+//        与spel一致 非桥接方法优先
+        Arrays.sort(methods, (o1, o2) -> (o1.isBridge() == o2.isBridge() ? 0 : (o1.isBridge() ? 1 : -1)));
+        for (String suffix : getPropertyMethodSuffixes(propertyName)) {
+            for (Method method : methods) {
+                if (method.getName().equals(prefix + suffix) && method.getParameterCount() == 0
+                    && (!booleanOnly || method.getReturnType() == boolean.class || method.getReturnType() == Boolean.class)) {
+                    return method;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Field findField(Class<?> type, String propertyName) {
+        for (Field field : type.getFields()) {
+            if (field.getName().equals(propertyName)) {
+                return field;
+            }
+        }
+        return null;
+    }
+
+    private static String[] getPropertyMethodSuffixes(String propertyName) {
+        String suffix = propertyName.length() > 1 && Character.isUpperCase(propertyName.charAt(1))
+            ? propertyName : StringUtils.capitalize(propertyName);
+        if (suffix.length() > 0 && Character.isUpperCase(suffix.charAt(0))) {
+            return new String[]{suffix};
+        }
+        return new String[]{suffix, StringUtils.capitalize(suffix)};
+    }
+
+    private static final class PropertyGetter {
+
+        private final MethodHandle handle;
+
+        private final TypeDescriptor typeDescriptor;
+
+        PropertyGetter(MethodHandle handle, TypeDescriptor typeDescriptor) {
+            this.handle = handle;
+            this.typeDescriptor = typeDescriptor;
+        }
+    }
+
+    private static final class VariableIndex {
+
+        private final MethodSpelTemplate template;
+
+        private final int index;
+
+        VariableIndex(MethodSpelTemplate template, int index) {
+            this.template = template;
+            this.index = index;
+        }
+    }
+
+}
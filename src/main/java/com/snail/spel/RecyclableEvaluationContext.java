@@ -0,0 +1,65 @@
+package com.snail.spel;
+
+import org.springframework.expression.TypedValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description: 可重复使用的上下文, 批量解析时每条记录只替换根对象和变量, 不重新创建上下文(非线程安全)
+ * @date: 2026/10/18
+ */
+final class RecyclableEvaluationContext extends SharedEvaluationContext {
+
+    private TypedValue rootObject = TypedValue.NULL;
+
+    /**
+     * 当前记录的变量
+     */
+    private Map<String, ?> variableMap;
+
+    /**
+     * 表达式中赋值的变量, 切换记录时清空
+     */
+    private Map<String, Object> assignedVariableMap;
+
+    /**
+     * 切换到下一条记录
+     *
+     * @param rootObject  根对象
+     * @param variableMap 变量
+     */
+    void reset(Object rootObject, Map<String, ?> variableMap) {
+        this.rootObject = rootObject == null ? TypedValue.NULL : new TypedValue(rootObject);
+        this.variableMap = variableMap;
+        if (assignedVariableMap != null && !assignedVariableMap.isEmpty()) {
+            assignedVariableMap.clear();
+        }
+    }
+
+    @Override
+    public TypedValue getRootObject() {
+        return rootObject;
+    }
+
+    @Override
+    public void setVariable(String name, Object value) {
+        if (assignedVariableMap == null) {
+            assignedVariableMap = new HashMap<>();
+        }
+        assignedVariableMap.put(name, value);
+    }
+
+    @Override
+    public Object lookupVariable(String name) {
+        if (assignedVariableMap != null && assignedVariableMap.containsKey(name)) {
+            return assignedVariableMap.get(name);
+        }
+        return variableMap == null ? null : variableMap.get(name);
+    }
+
+}
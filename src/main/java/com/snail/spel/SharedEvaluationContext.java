@@ -0,0 +1,96 @@
+package com.snail.spel;
+
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.ConstructorResolver;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.MethodResolver;
+import org.springframework.expression.OperatorOverloader;
+import org.springframework.expression.PropertyAccessor;
+import org.springframework.expression.TypeComparator;
+import org.springframework.expression.TypeConverter;
+import org.springframework.expression.TypeLocator;
+import org.springframework.expression.spel.support.ReflectiveConstructorResolver;
+import org.springframework.expression.spel.support.ReflectivePropertyAccessor;
+import org.springframework.expression.spel.support.StandardOperatorOverloader;
+import org.springframework.expression.spel.support.StandardTypeComparator;
+import org.springframework.expression.spel.support.StandardTypeConverter;
+import org.springframework.expression.spel.support.StandardTypeLocator;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description: 属性访问器 方法解析器 类型转换器等组件在所有上下文间共享的上下文, 变量和根对象由子类提供
+ * @date: 2026/10/18
+ */
+abstract class SharedEvaluationContext implements EvaluationContext {
+
+    private static final List<PropertyAccessor> PROPERTY_ACCESSORS =
+        Collections.singletonList(new ReflectivePropertyAccessor());
+
+    private static final List<ConstructorResolver> CONSTRUCTOR_RESOLVERS =
+        Collections.singletonList(new ReflectiveConstructorResolver());
+
+    /**
+     * 共享的ReflectivePropertyAccessor本身按类缓存了读取方法, 方法解析器按类缓存解析结果
+     */
+    private static final List<MethodResolver> METHOD_RESOLVERS =
+        Collections.singletonList(new CachingMethodResolver());
+
+    private static final TypeConverter TYPE_CONVERTER = new StandardTypeConverter();
+
+    private static final TypeComparator TYPE_COMPARATOR = new StandardTypeComparator();
+
+    private static final OperatorOverloader OPERATOR_OVERLOADER = new StandardOperatorOverloader();
+
+    private TypeLocator typeLocator;
+
+    @Override
+    public List<PropertyAccessor> getPropertyAccessors() {
+        return PROPERTY_ACCESSORS;
+    }
+
+    @Override
+    public List<ConstructorResolver> getConstructorResolvers() {
+        return CONSTRUCTOR_RESOLVERS;
+    }
+
+    @Override
+    public List<MethodResolver> getMethodResolvers() {
+        return METHOD_RESOLVERS;
+    }
+
+    @Override
+    public BeanResolver getBeanResolver() {
+        return SpelUtil.getBeanResolver();
+    }
+
+    @Override
+    public TypeLocator getTypeLocator() {
+//        StandardTypeLocator绑定创建时的ClassLoader 不共享
+        if (typeLocator == null) {
+            typeLocator = new StandardTypeLocator();
+        }
+        return typeLocator;
+    }
+
+    @Override
+    public TypeConverter getTypeConverter() {
+        return TYPE_CONVERTER;
+    }
+
+    @Override
+    public TypeComparator getTypeComparator() {
+        return TYPE_COMPARATOR;
+    }
+
+    @Override
+    public OperatorOverloader getOperatorOverloader() {
+        return OPERATOR_OVERLOADER;
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.snail.spel;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description: el表达式的编译状态
+ * @date: 2026/10/18
+ */
+public enum SpelCompileStatus {
+
+    /**
+     * 编译模式为OFF, 始终解释执行
+     */
+    INTERPRETED,
+
+    /**
+     * 等待编译(已达到编译阈值前)
+     */
+    PENDING,
+
+    /**
+     * 已编译成字节码
+     */
+    COMPILED,
+
+    /**
+     * 无法编译或编译后执行失败, 已降级为解释执行
+     */
+    FALLBACK
+
+}
@@ -0,0 +1,29 @@
+package com.snail.spel;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description: map上下文的类型
+ * @date: 2026/10/18
+ */
+public enum SpelContextProfile {
+
+    /**
+     * StandardEvaluationContext 支持全部spel功能, 每个上下文单独创建属性访问器和方法解析器
+     */
+    STANDARD,
+
+    /**
+     * SimpleEvaluationContext.forReadOnlyDataBinding 只读数据绑定, 只能读取属性 不能调用方法 引用类型和bean
+     */
+    READ_ONLY,
+
+    /**
+     * 高吞吐的上下文 属性访问器和方法解析器在所有上下文间共享, 并按目标类缓存解析结果
+     * 直接引用传入的map(不复制), 不支持自定义属性访问器
+     */
+    SHARED
+
+}
@@ -0,0 +1,69 @@
+package com.snail.spel;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description: el表达式的解析/执行监听器, 通过SpelUtil#addEvaluationListener注册, 没有注册时不产生任何开销
+ * <p>
+ * 方法在执行表达式的线程中同步调用, 实现需要线程安全且尽量轻量
+ * 对接Micrometer等监控时, 在onEvaluation中记录Timer即可, 也可以直接使用内置的SpelMetrics
+ * @date: 2026/10/18
+ */
+public interface SpelEvaluationListener {
+
+    /**
+     * 缓存命中
+     *
+     * @param expression el表达式
+     */
+    default void onCacheHit(String expression) {
+    }
+
+    /**
+     * 缓存未命中, 之后会解析表达式
+     *
+     * @param expression el表达式
+     */
+    default void onCacheMiss(String expression) {
+    }
+
+    /**
+     * 表达式解析完成
+     *
+     * @param expression   el表达式
+     * @param elapsedNanos 解析耗时(纳秒)
+     */
+    default void onParse(String expression, long elapsedNanos) {
+    }
+
+    /**
+     * 表达式执行成功
+     *
+     * @param expression   el表达式
+     * @param elapsedNanos 执行耗时(纳秒)
+     */
+    default void onEvaluation(String expression, long elapsedNanos) {
+    }
+
+    /**
+     * 表达式执行失败(SpelUtil#getValue会吞掉SpelEvaluationException并返回null, 这里仍然会通知)
+     *
+     * @param expression   el表达式
+     * @param elapsedNanos 执行耗时(纳秒)
+     * @param exception    异常
+     */
+    default void onFailure(String expression, long elapsedNanos, RuntimeException exception) {
+    }
+
+    /**
+     * 表达式的编译状态变化
+     *
+     * @param expression el表达式
+     * @param status     新的编译状态
+     */
+    default void onCompileStatusChange(String expression, SpelCompileStatus status) {
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.snail.spel;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.spel.SpelEvaluationException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description: 预先解析好的一组el表达式(比如注解上的key condition unless), 对同一个上下文一次解析全部
+ * 请在注解处缓存(参考AspectSpelUtil#getExpressionSet), 不要每次调用都创建
+ * @date: 2026/10/18
+ */
+public final class SpelExpressionSet {
+
+    private final String[] expressions;
+
+    /**
+     * 解析好的表达式, 空白表达式为null
+     */
+    private final CachedExpression[] cachedExpressions;
+
+    private final Class<?>[] valueClasses;
+
+    private SpelExpressionSet(List<String> expressions, List<Class<?>> valueClasses) {
+        int size = expressions.size();
+        this.expressions = expressions.toArray(new String[size]);
+        this.valueClasses = valueClasses.toArray(new Class<?>[size]);
+        this.cachedExpressions = new CachedExpression[size];
+        for (int i = 0; i < size; i++) {
+            if (StringUtils.isNotBlank(this.expressions[i])) {
+                cachedExpressions[i] = SpelUtil.getCachedExpression(this.expressions[i]);
+            }
+        }
+    }
+
+    /**
+     * 创建表达式组 解析后的类型都为Object
+     *
+     * @param expressions el表达式(空白的表达式解析结果为null)
+     * @return 表达式组
+     */
+    public static SpelExpressionSet of(String... expressions) {
+        Builder builder = builder();
+        for (String expression : expressions) {
+            builder.add(expression, Object.class);
+        }
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 对同一个上下文解析全部表达式
+     *
+     * @param context 当前上下文
+     * @return 按添加顺序的值, 空白表达式或解析失败时对应位置为null
+     */
+    public Object[] getValues(EvaluationContext context) {
+        Object[] values = new Object[cachedExpressions.length];
+        for (int i = 0; i < cachedExpressions.length; i++) {
+            CachedExpression exp = cachedExpressions[i];
+            if (exp == null) {
+                continue;
+            }
+            try {
+                values[i] = exp.getValue(context, valueClasses[i]);
+            } catch (SpelEvaluationException e) {
+                values[i] = null;
+            }
+        }
+        return values;
+    }
+
+    public int size() {
+        return expressions.length;
+    }
+
+    public String getExpression(int index) {
+        return expressions[index];
+    }
+
+    public Class<?> getValueClass(int index) {
+        return valueClasses[index];
+    }
+
+    public static final class Builder {
+
+        private final List<String> expressions = new ArrayList<>();
+
+        private final List<Class<?>> valueClasses = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * 添加表达式
+         *
+         * @param expression el表达式(空白的表达式解析结果为null)
+         * @param valueClass 期望表达式解析后的类型
+         * @return builder
+         */
+        public Builder add(String expression, Class<?> valueClass) {
+            expressions.add(expression);
+            valueClasses.add(valueClass);
+            return this;
+        }
+
+        public SpelExpressionSet build() {
+            return new SpelExpressionSet(expressions, valueClasses);
+        }
+    }
+
+}
@@ -0,0 +1,284 @@
+package com.snail.spel;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description: 内置的监控指标 按表达式统计执行耗时分布 失败次数和最后一次异常 解析次数 编译状态, 以及缓存命中率
+ * <p>
+ * 例: SpelMetrics metrics = new SpelMetrics(); SpelUtil.addEvaluationListener(metrics);
+ * 定时把getAllMetrics()的快照导出到Micrometer等监控系统即可
+ * @date: 2026/10/18
+ */
+public final class SpelMetrics implements SpelEvaluationListener {
+
+    /**
+     * 默认最多统计的表达式数量
+     */
+    public static final int DEFAULT_MAX_EXPRESSIONS = 1024;
+
+    /**
+     * 超过统计数量后, 新的表达式合并统计到这个key下
+     */
+    public static final String OVERFLOW_EXPRESSION = "<other>";
+
+    private final int maxExpressions;
+
+    private final Map<String, ExpressionMetrics> metricsMap = new ConcurrentHashMap<>();
+
+    private final LongAdder cacheHitCount = new LongAdder();
+
+    private final LongAdder cacheMissCount = new LongAdder();
+
+    public SpelMetrics() {
+        this(DEFAULT_MAX_EXPRESSIONS);
+    }
+
+    /**
+     * @param maxExpressions 最多统计的表达式数量(防止动态拼接的表达式无限增长)
+     */
+    public SpelMetrics(int maxExpressions) {
+        this.maxExpressions = maxExpressions;
+    }
+
+    @Override
+    public void onCacheHit(String expression) {
+        cacheHitCount.increment();
+    }
+
+    @Override
+    public void onCacheMiss(String expression) {
+        cacheMissCount.increment();
+    }
+
+    @Override
+    public void onParse(String expression, long elapsedNanos) {
+        metricsOf(expression).parseCount.increment();
+    }
+
+    @Override
+    public void onEvaluation(String expression, long elapsedNanos) {
+        metricsOf(expression).record(elapsedNanos);
+    }
+
+    @Override
+    public void onFailure(String expression, long elapsedNanos, RuntimeException exception) {
+        ExpressionMetrics metrics = metricsOf(expression);
+        metrics.record(elapsedNanos);
+        metrics.failureCount.increment();
+        metrics.lastFailure = exception;
+    }
+
+    @Override
+    public void onCompileStatusChange(String expression, SpelCompileStatus status) {
+        metricsOf(expression).compileStatus = status;
+    }
+
+    /**
+     * 获取表达式的统计
+     *
+     * @param expression el表达式
+     * @return 统计, 没有记录时为null
+     */
+    public ExpressionMetrics getMetrics(String expression) {
+        return metricsMap.get(expression);
+    }
+
+    /**
+     * 获取所有表达式的统计
+     *
+     * @return 表达式 -> 统计
+     */
+    public Map<String, ExpressionMetrics> getAllMetrics() {
+        return Collections.unmodifiableMap(metricsMap);
+    }
+
+    public long getCacheHitCount() {
+        return cacheHitCount.sum();
+    }
+
+    public long getCacheMissCount() {
+        return cacheMissCount.sum();
+    }
+
+    /**
+     * 缓存命中率, 没有请求时为1
+     *
+     * @return 命中率
+     */
+    public double getCacheHitRatio() {
+        long hit = cacheHitCount.sum();
+        long requestCount = hit + cacheMissCount.sum();
+        return requestCount == 0 ? 1.0 : (double) hit / requestCount;
+    }
+
+    /**
+     * 清空统计
+     */
+    public void reset() {
+        metricsMap.clear();
+        cacheHitCount.reset();
+        cacheMissCount.reset();
+    }
+
+    private ExpressionMetrics metricsOf(String expression) {
+        ExpressionMetrics metrics = metricsMap.get(expression);
+        if (metrics != null) {
+            return metrics;
+        }
+        if (metricsMap.size() >= maxExpressions) {
+            return metricsMap.computeIfAbsent(OVERFLOW_EXPRESSION, ExpressionMetrics::new);
+        }
+        return metricsMap.computeIfAbsent(expression, ExpressionMetrics::new);
+    }
+
+    /**
+     * 单个表达式的统计
+     */
+    public static final class ExpressionMetrics {
+
+        /**
+         * 耗时按2的幂分桶, 第i个桶记录 [2^(i-1), 2^i) 纳秒
+         */
+        private static final int BUCKET_COUNT = 64;
+
+        private final String expression;
+
+        private final LongAdder evaluationCount = new LongAdder();
+
+        private final LongAdder failureCount = new LongAdder();
+
+        private final LongAdder parseCount = new LongAdder();
+
+        private final LongAdder totalNanos = new LongAdder();
+
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private final LongAdder[] latencyBuckets = new LongAdder[BUCKET_COUNT];
+
+        private volatile RuntimeException lastFailure;
+
+        private volatile SpelCompileStatus compileStatus;
+
+        ExpressionMetrics(String expression) {
+            this.expression = expression;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                latencyBuckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long elapsedNanos) {
+            long nanos = Math.max(elapsedNanos, 0);
+            evaluationCount.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            latencyBuckets[Math.min(BUCKET_COUNT - 1, 64 - Long.numberOfLeadingZeros(nanos))].increment();
+        }
+
+        public String getExpression() {
+            return expression;
+        }
+
+        /**
+         * 执行次数(包含失败)
+         */
+        public long getEvaluationCount() {
+            return evaluationCount.sum();
+        }
+
+        public long getFailureCount() {
+            return failureCount.sum();
+        }
+
+        public long getParseCount() {
+            return parseCount.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        public double getMeanNanos() {
+            long count = evaluationCount.sum();
+            return count == 0 ? 0 : (double) totalNanos.sum() / count;
+        }
+
+        /**
+         * 耗时分位数(按分桶的上界估算)
+         *
+         * @param percentile 分位 0~1
+         * @return 耗时(纳秒)
+         */
+        public long getLatencyPercentileNanos(double percentile) {
+            long[] buckets = getLatencyBuckets();
+            long count = 0;
+            for (long bucket : buckets) {
+                count += bucket;
+            }
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile * count);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank && buckets[i] > 0) {
+                    return Math.min(i == 0 ? 0 : 1L << Math.min(i, 62), getMaxNanos());
+                }
+            }
+            return getMaxNanos();
+        }
+
+        /**
+         * 耗时分桶的快照
+         *
+         * @return 第i个值为耗时在 [2^(i-1), 2^i) 纳秒的次数
+         */
+        public long[] getLatencyBuckets() {
+            long[] buckets = new long[BUCKET_COUNT];
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                buckets[i] = latencyBuckets[i].sum();
+            }
+            return buckets;
+        }
+
+        public RuntimeException getLastFailure() {
+            return lastFailure;
+        }
+
+        /**
+         * 编译状态(没有记录到变化时取缓存中的状态)
+         */
+        public SpelCompileStatus getCompileStatus() {
+            SpelCompileStatus status = compileStatus;
+            return status != null ? status : SpelUtil.getCompileStatus(expression);
+        }
+
+        @Override
+        public String toString() {
+            return "ExpressionMetrics{" +
+                "expression='" + expression + '\'' +
+                ", evaluationCount=" + getEvaluationCount() +
+                ", failureCount=" + getFailureCount() +
+                ", parseCount=" + getParseCount() +
+                ", meanNanos=" + getMeanNanos() +
+                ", p99Nanos=" + getLatencyPercentileNanos(0.99) +
+                ", maxNanos=" + getMaxNanos() +
+                ", compileStatus=" + getCompileStatus() +
+                ", lastFailure=" + lastFailure +
+                '}';
+        }
+    }
+
+}
@@ -3,31 +3,75 @@ package com.snail.spel;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.context.expression.BeanFactoryResolver;
-import org.springframework.context.expression.MethodBasedEvaluationContext;
 import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
+import org.springframework.expression.BeanResolver;
 import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
-import org.springframework.expression.TypedValue;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
 import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
-import org.springframework.util.ConcurrentReferenceHashMap;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public enum SpelUtil {
     ;
-    private static ExpressionParser parser = new SpelExpressionParser();
+    /**
+     * 默认编译模式沿用spring的配置(spring.expression.compiler.mode)
+     */
+    private static volatile SpelCompilerMode compilerMode = new SpelParserConfiguration().getCompilerMode();
+
+    /**
+     * 各编译模式的解析器
+     */
+    private static final Map<SpelCompilerMode, ExpressionParser> parserMap = createParserMap();
 
     private static LocalVariableTableParameterNameDiscoverer discoverer = new LocalVariableTableParameterNameDiscoverer();
 
-    private static Map<String, Expression> expressionCacheMap = new ConcurrentReferenceHashMap<>();
+    /**
+     * 方法 -> 方法的el上下文模板
+     */
+    private static final Map<Method, MethodSpelTemplate> methodTemplateMap = new ConcurrentHashMap<>();
+
+    /**
+     * 默认缓存的表达式数量
+     */
+    public static final int DEFAULT_EXPRESSION_CACHE_CAPACITY = 2048;
+
+    private static volatile ExpressionCache expressionCache = new ExpressionCache(DEFAULT_EXPRESSION_CACHE_CAPACITY);
+
+    /**
+     * 降级为解释执行的表达式 表达式 -> 原因(无法编译时为编译失败说明)
+     */
+    private static final Map<String, String> compileFallbackMap = new ConcurrentHashMap<>();
+
+    private static volatile BiConsumer<String, Throwable> compileFallbackHandler;
+
+    private static final List<SpelEvaluationListener> evaluationListeners = new ArrayList<>();
+
+    /**
+     * 所有监听器合并后的监听器, 没有注册时为null
+     */
+    private static volatile SpelEvaluationListener evaluationListener;
+
+    private static volatile SpelContextProfile defaultContextProfile = SpelContextProfile.STANDARD;
 
     private static BeanFactoryResolver beanFactoryResolver;
 
@@ -41,7 +85,7 @@ public enum SpelUtil {
      * @return 值
      */
     public static <T> T getValue(String expression, EvaluationContext context, Class<T> valueClass) {
-        Expression exp = expressionCacheMap.computeIfAbsent(expression, parser::parseExpression);
+        CachedExpression exp = getCachedExpression(expression);
         try {
             return exp.getValue(context, valueClass);
         } catch (SpelEvaluationException e) {
@@ -63,6 +107,143 @@ public enum SpelUtil {
         return getValue(expression, parseMethodToContext(method, args), valueClass);
     }
 
+    /**
+     * 解析模板 map上下文(如 order:#{#tenant}:#{#id}, 等价于 'order:' + #tenant + ':' + #id)
+     * <p>
+     * 字面量在解析时已拆分好, 简单的变量属性路径直接读取, 结果写入预估大小的StringBuilder
+     * 和spring的模板一致, 值为null的部分不输出
+     *
+     * @param template 模板
+     * @param context  当前上下文
+     * @return 字符串, 解析失败时为null
+     */
+    public static String getTemplateValue(String template, EvaluationContext context) {
+        CachedExpression exp = getCachedTemplate(template);
+        try {
+            return exp.getValue(context, String.class);
+        } catch (SpelEvaluationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 解析模板 方法入参上下文
+     *
+     * @param template 模板
+     * @param method   目标方法
+     * @param args     目标方法的入参
+     * @return 字符串, 解析失败时为null
+     */
+    public static String getTemplateValue(String template, Method method, Object[] args) {
+        return getTemplateValue(template, parseMethodToContext(method, args));
+    }
+
+    /**
+     * 批量解析 同一个表达式解析多个根对象(表达式中直接引用根对象的属性, 如 amount > 100)
+     *
+     * @param expression  el表达式
+     * @param rootObjects 根对象列表
+     * @param valueClass  期待解析后的类型
+     * @param <T>         解析后的类型
+     * @return 按输入顺序的值, 解析失败的位置为null
+     */
+    public static <T> List<T> getValues(String expression, Collection<?> rootObjects, Class<T> valueClass) {
+        return getValues(expression, rootObjects, valueClass, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 批量解析 同一个表达式解析多个根对象, 数量达到阈值时使用ForkJoinPool并行解析
+     *
+     * @param expression        el表达式
+     * @param rootObjects       根对象列表
+     * @param valueClass        期待解析后的类型
+     * @param parallelThreshold 根对象数量达到这个值时并行解析
+     * @param <T>               解析后的类型
+     * @return 按输入顺序的值, 解析失败的位置为null
+     */
+    public static <T> List<T> getValues(
+        String expression, Collection<?> rootObjects, Class<T> valueClass, int parallelThreshold
+    ) {
+        return bulkGetValues(expression, rootObjects.toArray(), false, valueClass, parallelThreshold);
+    }
+
+    /**
+     * 批量解析 同一个表达式解析多个根对象, 数量达到阈值时使用ForkJoinPool并行解析
+     *
+     * @param expression        el表达式
+     * @param rootObjects       根对象流
+     * @param valueClass        期待解析后的类型
+     * @param parallelThreshold 根对象数量达到这个值时并行解析
+     * @param <T>               解析后的类型
+     * @return 按流顺序的值, 解析失败的位置为null
+     */
+    public static <T> List<T> getValues(
+        String expression, Stream<?> rootObjects, Class<T> valueClass, int parallelThreshold
+    ) {
+        return bulkGetValues(expression, rootObjects.toArray(), false, valueClass, parallelThreshold);
+    }
+
+    /**
+     * 批量解析 同一个表达式解析多个map上下文
+     *
+     * @param expression   el表达式
+     * @param variableMaps map上下文列表
+     * @param valueClass   期待解析后的类型
+     * @param <T>          解析后的类型
+     * @return 按输入顺序的值, 解析失败的位置为null
+     */
+    public static <T> List<T> getValuesFromVariables(
+        String expression, Collection<? extends Map<String, ?>> variableMaps, Class<T> valueClass
+    ) {
+        return getValuesFromVariables(expression, variableMaps, valueClass, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 批量解析 同一个表达式解析多个map上下文, 数量达到阈值时使用ForkJoinPool并行解析
+     *
+     * @param expression        el表达式
+     * @param variableMaps      map上下文列表
+     * @param valueClass        期待解析后的类型
+     * @param parallelThreshold map上下文数量达到这个值时并行解析
+     * @param <T>               解析后的类型
+     * @return 按输入顺序的值, 解析失败的位置为null
+     */
+    public static <T> List<T> getValuesFromVariables(
+        String expression, Collection<? extends Map<String, ?>> variableMaps, Class<T> valueClass, int parallelThreshold
+    ) {
+        return bulkGetValues(expression, variableMaps.toArray(), true, valueClass, parallelThreshold);
+    }
+
+    /**
+     * 批量解析 同一个表达式解析多个map上下文, 数量达到阈值时使用ForkJoinPool并行解析
+     *
+     * @param expression        el表达式
+     * @param variableMaps      map上下文流
+     * @param valueClass        期待解析后的类型
+     * @param parallelThreshold map上下文数量达到这个值时并行解析
+     * @param <T>               解析后的类型
+     * @return 按流顺序的值, 解析失败的位置为null
+     */
+    public static <T> List<T> getValuesFromVariables(
+        String expression, Stream<? extends Map<String, ?>> variableMaps, Class<T> valueClass, int parallelThreshold
+    ) {
+        return bulkGetValues(expression, variableMaps.toArray(), true, valueClass, parallelThreshold);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> bulkGetValues(
+        String expression, Object[] sources, boolean variableMode, Class<T> valueClass, int parallelThreshold
+    ) {
+        if (sources.length == 0) {
+            return new ArrayList<>();
+        }
+//        表达式只解析一次, 每段记录复用一个上下文
+        Object[] results = BulkEvaluationTask.evaluate(
+            getCachedExpression(expression), sources, variableMode, valueClass, parallelThreshold
+        );
+        return (List<T>) new ArrayList<>(Arrays.asList(results));
+    }
+
     /**
      * 生成一个解析器 map上下文
      *
@@ -73,12 +254,7 @@ public enum SpelUtil {
         if (SpelUtil.beanFactoryResolver != null && evaluationContext instanceof StandardEvaluationContext) {
             ((StandardEvaluationContext) evaluationContext).setBeanResolver(SpelUtil.beanFactoryResolver);
         }
-        return new SpelFunction() {
-            @Override
-            public <T> T getValue(String expression, Class<T> valueClass) {
-                return SpelUtil.getValue(expression, evaluationContext, valueClass);
-            }
-        };
+        return new ContextSpelFunction(evaluationContext);
     }
 
     /**
@@ -92,6 +268,50 @@ public enum SpelUtil {
         return generateSpelFunction(parseMethodToContext(method, args));
     }
 
+    /**
+     * 生成一个解析器 方法入参上下文 带condition(方便判断这次el是否需要解析)
+     *
+     * @param method              目标方法
+     * @param args                目标方法的入参
+     * @param conditionExpression conditionEl表达式, 如果condition解析为null或false 返回值为null
+     * @return 解析器
+     */
+    public static SpelFunction generateSpelFunctionWithCondition(Method method, Object[] args, String conditionExpression) {
+        return generateSpelFunctionWithCondition(method, () -> args, conditionExpression);
+    }
+
+    /**
+     * 生成一个解析器 方法入参上下文 带condition(方便判断这次el是否需要解析)
+     * <p>
+     * 空白或字面量(true false)的condition在解析时就确定结果, 不会获取入参和创建上下文
+     * condition通过时才创建解析器, 并复用condition的上下文
+     *
+     * @param method              目标方法
+     * @param argsSupplier        目标方法的入参(需要时才获取)
+     * @param conditionExpression conditionEl表达式, 如果condition解析为null或false 返回值为null
+     * @return 解析器
+     */
+    public static SpelFunction generateSpelFunctionWithCondition(
+        Method method, Supplier<Object[]> argsSupplier, String conditionExpression
+    ) {
+        if (StringUtils.isBlank(conditionExpression)) {
+            return null;
+        }
+        CachedExpression condition = getCachedExpression(conditionExpression);
+        Boolean constantCondition = condition.getConstantCondition();
+        if (constantCondition != null) {
+            return constantCondition ? generateSpelFunction(method, argsSupplier.get()) : null;
+        }
+        EvaluationContext context = parseMethodToContext(method, argsSupplier.get());
+        Boolean pass;
+        try {
+            pass = condition.getValue(context, Boolean.class);
+        } catch (SpelEvaluationException e) {
+            pass = null;
+        }
+        return Boolean.TRUE.equals(pass) ? generateSpelFunction(context) : null;
+    }
+
     /**
      * 生成一个解析器 map上下文
      *
@@ -99,7 +319,30 @@ public enum SpelUtil {
      * @return 解析器
      */
     public static SpelFunction generateSpelFunction(Map<String, Object> variableMap) {
-        return generateSpelFunction(parseVariableMapToContext(variableMap));
+        return generateSpelFunction(parseVariableMapToContext(variableMap, defaultContextProfile));
+    }
+
+    /**
+     * 生成一个解析器 map上下文 指定上下文类型
+     *
+     * @param variableMap map上下文
+     * @param profile     上下文类型
+     * @return 解析器
+     */
+    public static SpelFunction generateSpelFunction(Map<String, Object> variableMap, SpelContextProfile profile) {
+        return generateSpelFunction(parseVariableMapToContext(variableMap, profile));
+    }
+
+    /**
+     * 设置map上下文默认的上下文类型(默认STANDARD)
+     *
+     * @param profile 上下文类型
+     */
+    public static void setDefaultContextProfile(SpelContextProfile profile) {
+        if (profile == null) {
+            throw new IllegalArgumentException("profile不能为空");
+        }
+        SpelUtil.defaultContextProfile = profile;
     }
 
     /**
@@ -137,10 +380,22 @@ public enum SpelUtil {
      * 将map上下文转换成EvaluationContext
      *
      * @param variableMap map上下文
+     * @param profile     上下文类型
      * @return
      */
-    private static StandardEvaluationContext parseVariableMapToContext(Map<String, Object> variableMap) {
-        StandardEvaluationContext context = new StandardEvaluationContext();
+    private static EvaluationContext parseVariableMapToContext(Map<String, Object> variableMap, SpelContextProfile profile) {
+        EvaluationContext context;
+        switch (profile) {
+            case SHARED:
+                RecyclableEvaluationContext sharedContext = new RecyclableEvaluationContext();
+                sharedContext.reset(null, variableMap);
+                return sharedContext;
+            case READ_ONLY:
+                context = SimpleEvaluationContext.forReadOnlyDataBinding().build();
+                break;
+            default:
+                context = new StandardEvaluationContext();
+        }
         if (variableMap != null) {
             for (Map.Entry<String, Object> entry : variableMap.entrySet()) {
                 context.setVariable(entry.getKey(), entry.getValue());
@@ -151,13 +406,258 @@ public enum SpelUtil {
 
     /**
      * 直接把方法和入参转换成EvaluationContext
+     * 入参名称只在方法第一次使用时解析, 之后按下标直接读取入参
      *
      * @param method 方法
      * @param args   入参
      * @return
      */
-    private static StandardEvaluationContext parseMethodToContext(Method method, Object[] args) {
-        return new MethodBasedEvaluationContext(TypedValue.NULL, method, args, discoverer);
+    private static EvaluationContext parseMethodToContext(Method method, Object[] args) {
+        if (method == null) {
+            return parseVariableMapToContext(null, defaultContextProfile);
+        }
+        return getMethodTemplate(method).createContext(args);
+    }
+
+    /**
+     * 预先解析表达式并放入缓存(启动预热时使用), 表达式不合法时抛出ParseException
+     *
+     * @param expression el表达式
+     */
+    public static void prepareExpression(String expression) {
+        getCachedExpression(expression);
+    }
+
+    /**
+     * 预先解析模板并放入缓存(启动预热时使用), 模板不合法时抛出ParseException
+     *
+     * @param template 模板
+     */
+    public static void prepareTemplate(String template) {
+        getCachedTemplate(template);
+    }
+
+    /**
+     * 预先解析方法的入参名称(启动预热时使用), 之后的调用不再需要解析
+     *
+     * @param method 目标方法
+     */
+    public static void prepareMethod(Method method) {
+        getMethodTemplate(method);
+    }
+
+    /**
+     * 获取方法的el上下文模板, 不存在时创建
+     *
+     * @param method 方法
+     * @return 模板
+     */
+    static MethodSpelTemplate getMethodTemplate(Method method) {
+        MethodSpelTemplate template = methodTemplateMap.get(method);
+        if (template == null) {
+            template = methodTemplateMap.computeIfAbsent(method, m -> new MethodSpelTemplate(m, discoverer));
+        }
+        return template;
+    }
+
+    /**
+     * 获取已注册的bean解析器
+     *
+     * @return bean解析器, 未注册时为null
+     */
+    static BeanResolver getBeanResolver() {
+        return beanFactoryResolver;
+    }
+
+    /**
+     * 设置el表达式的编译模式(缓存按编译模式区分, 之前模式下的表达式会逐渐被淘汰)
+     * <p>
+     * OFF: 始终解释执行
+     * MIXED: 解释执行一段时间后编译, 编译后执行失败会回退到解释执行
+     * IMMEDIATE: 第一次解释执行后立即编译
+     * <p>
+     * 无法编译(或编译后执行失败)的表达式会单独降级为解释执行, 不影响其他表达式
+     *
+     * @param compilerMode 编译模式
+     */
+    public static void setCompilerMode(SpelCompilerMode compilerMode) {
+        if (compilerMode == null) {
+            throw new IllegalArgumentException("compilerMode不能为空");
+        }
+        SpelUtil.compilerMode = compilerMode;
+        compileFallbackMap.clear();
+    }
+
+    /**
+     * 获取当前的编译模式
+     *
+     * @return 编译模式
+     */
+    public static SpelCompilerMode getCompilerMode() {
+        return compilerMode;
+    }
+
+    /**
+     * 获取表达式的编译状态
+     *
+     * @param expression el表达式
+     * @return 编译状态, 表达式未被解析过时为null
+     */
+    public static SpelCompileStatus getCompileStatus(String expression) {
+        CachedExpression exp = expressionCache.peek(expression, compilerMode, false);
+        return exp == null ? null : exp.getCompileStatus();
+    }
+
+    /**
+     * 获取降级为解释执行的表达式
+     *
+     * @return 表达式 -> 降级原因
+     */
+    public static Map<String, String> getCompileFallbacks() {
+        return Collections.unmodifiableMap(compileFallbackMap);
+    }
+
+    /**
+     * 注册表达式降级时的回调
+     *
+     * @param handler (表达式, 编译后执行失败的异常 无法编译时为null)
+     */
+    public static void setCompileFallbackHandler(BiConsumer<String, Throwable> handler) {
+        SpelUtil.compileFallbackHandler = handler;
+    }
+
+    /**
+     * 注册解析/执行监听器(监控指标), 没有监听器时不产生开销
+     *
+     * @param listener 监听器
+     */
+    public static synchronized void addEvaluationListener(SpelEvaluationListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener不能为空");
+        }
+        evaluationListeners.add(listener);
+        evaluationListener = CompositeEvaluationListener.of(evaluationListeners);
+    }
+
+    /**
+     * 移除解析/执行监听器
+     *
+     * @param listener 监听器
+     */
+    public static synchronized void removeEvaluationListener(SpelEvaluationListener listener) {
+        evaluationListeners.remove(listener);
+        evaluationListener = CompositeEvaluationListener.of(evaluationListeners);
+    }
+
+    /**
+     * 获取当前生效的监听器
+     *
+     * @return 监听器, 没有注册时为null
+     */
+    static SpelEvaluationListener getEvaluationListener() {
+        return evaluationListener;
+    }
+
+    /**
+     * 设置表达式缓存的容量(LRU淘汰), 会清空已缓存的表达式和统计
+     *
+     * @param capacity 缓存容量
+     */
+    public static void setExpressionCacheCapacity(int capacity) {
+        SpelUtil.expressionCache = new ExpressionCache(capacity);
+    }
+
+    /**
+     * 获取表达式缓存的统计(命中/未命中/淘汰次数)
+     *
+     * @return 统计快照
+     */
+    public static ExpressionCacheStats getExpressionCacheStats() {
+        return expressionCache.stats();
+    }
+
+    /**
+     * 从缓存获取表达式, 不存在时按当前编译模式解析
+     *
+     * @param expression el表达式
+     * @return 缓存的表达式
+     */
+    static CachedExpression getCachedExpression(String expression) {
+        return getCachedExpression(expression, false);
+    }
+
+    /**
+     * 从缓存获取模板, 不存在时按当前编译模式解析
+     *
+     * @param template 模板
+     * @return 缓存的表达式
+     */
+    static CachedExpression getCachedTemplate(String template) {
+        return getCachedExpression(template, true);
+    }
+
+    private static CachedExpression getCachedExpression(String expression, boolean template) {
+        SpelCompilerMode mode = SpelUtil.compilerMode;
+        SpelEvaluationListener listener = SpelUtil.evaluationListener;
+        if (listener == null) {
+            return expressionCache.get(expression, mode, template, () -> parseCachedExpression(expression, mode, template));
+        }
+        boolean[] miss = new boolean[1];
+        CachedExpression cached = expressionCache.get(expression, mode, template, () -> {
+            miss[0] = true;
+            listener.onCacheMiss(expression);
+            long start = System.nanoTime();
+            CachedExpression parsed = parseCachedExpression(expression, mode, template);
+            listener.onParse(expression, System.nanoTime() - start);
+            return parsed;
+        });
+        if (!miss[0]) {
+            listener.onCacheHit(expression);
+        }
+        return cached;
+    }
+
+    private static CachedExpression parseCachedExpression(String expression, SpelCompilerMode mode, boolean template) {
+        ExpressionParser parser = parserMap.get(mode);
+        if (template) {
+            return CachedExpression.ofTemplate(expression, parser.parseExpression(expression, ParserContext.TEMPLATE_EXPRESSION), mode);
+        }
+        return new CachedExpression(expression, parser.parseExpression(expression), mode);
+    }
+
+    /**
+     * 以解释执行的方式解析表达式
+     *
+     * @param expression el表达式
+     * @return 表达式
+     */
+    static Expression parseInterpretedExpression(String expression) {
+        return parserMap.get(SpelCompilerMode.OFF).parseExpression(expression);
+    }
+
+    /**
+     * 记录降级为解释执行的表达式
+     *
+     * @param expression el表达式
+     * @param cause      编译后执行失败的异常, 无法编译时为null
+     */
+    static void reportCompileFallback(String expression, Throwable cause) {
+        compileFallbackMap.put(
+            expression,
+            cause == null ? "表达式无法编译" : "编译后执行失败: " + cause.getMessage()
+        );
+        BiConsumer<String, Throwable> handler = SpelUtil.compileFallbackHandler;
+        if (handler != null) {
+            handler.accept(expression, cause);
+        }
+    }
+
+    private static Map<SpelCompilerMode, ExpressionParser> createParserMap() {
+        Map<SpelCompilerMode, ExpressionParser> parserMap = new EnumMap<>(SpelCompilerMode.class);
+        for (SpelCompilerMode mode : SpelCompilerMode.values()) {
+            parserMap.put(mode, new SpelExpressionParser(new SpelParserConfiguration(mode, null)));
+        }
+        return parserMap;
     }
 
     /**
@@ -199,6 +699,60 @@ public enum SpelUtil {
                 .map(ex -> getValue(ex, valueClass))
                 .orElseGet(supplier);
         }
+
+        /**
+         * 一次解析一组表达式
+         *
+         * @param expressionSet 预先解析好的表达式组
+         * @return 按添加顺序的值, 空白表达式或解析失败时对应位置为null
+         */
+        default Object[] getValues(SpelExpressionSet expressionSet) {
+            Object[] values = new Object[expressionSet.size()];
+            for (int i = 0; i < values.length; i++) {
+                String expression = expressionSet.getExpression(i);
+                if (StringUtils.isNotBlank(expression)) {
+                    values[i] = getValue(expression, expressionSet.getValueClass(i));
+                }
+            }
+            return values;
+        }
+
+        /**
+         * 解析模板(如 order:#{#tenant}:#{#id}), 模板的拆分结果会被缓存, 各#{}部分使用当前解析器解析
+         *
+         * @param template 模板
+         * @return 字符串
+         */
+        default String getTemplateValue(String template) {
+            return getCachedTemplate(template).getTemplate().render(part -> getValue(part, String.class));
+        }
+    }
+
+    /**
+     * 绑定上下文的解析器
+     */
+    private static final class ContextSpelFunction implements SpelFunction {
+
+        private final EvaluationContext evaluationContext;
+
+        private ContextSpelFunction(EvaluationContext evaluationContext) {
+            this.evaluationContext = evaluationContext;
+        }
+
+        @Override
+        public <T> T getValue(String expression, Class<T> valueClass) {
+            return SpelUtil.getValue(expression, evaluationContext, valueClass);
+        }
+
+        @Override
+        public Object[] getValues(SpelExpressionSet expressionSet) {
+            return expressionSet.getValues(evaluationContext);
+        }
+
+        @Override
+        public String getTemplateValue(String template) {
+            return SpelUtil.getTemplateValue(template, evaluationContext);
+        }
     }
 
 }
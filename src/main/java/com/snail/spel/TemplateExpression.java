@@ -0,0 +1,135 @@
+package com.snail.spel;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.common.CompositeStringExpression;
+import org.springframework.expression.common.LiteralExpression;
+import org.springframework.expression.spel.SpelCompilerMode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description: 预先拆分的模板表达式(order:#{#tenant}:#{#id}), 字面量直接拼接, 每个#{}单独缓存编译状态
+ * 简单的变量属性路径(#id #order.id)直接读取, 结果写入预估大小的StringBuilder, 不经过spel的+运算
+ * 和spring的CompositeStringExpression一致, 值为null的部分不输出
+ * @date: 2026/10/18
+ */
+final class TemplateExpression {
+
+    /**
+     * 每个#{}部分的初始预估长度
+     */
+    private static final int PART_LENGTH_HINT = 16;
+
+    /**
+     * 字面量, 比parts多一个(parts[i]在literals[i]和literals[i + 1]之间)
+     */
+    private final String[] literals;
+
+    private final CachedExpression[] parts;
+
+    /**
+     * 上一次输出的长度, 用于预估StringBuilder的容量
+     */
+    private volatile int lengthHint;
+
+    private TemplateExpression(String[] literals, CachedExpression[] parts) {
+        this.literals = literals;
+        this.parts = parts;
+        int literalLength = 0;
+        for (String literal : literals) {
+            literalLength += literal.length();
+        }
+        this.lengthHint = literalLength + parts.length * PART_LENGTH_HINT;
+    }
+
+    /**
+     * 从模板解析器的结果拆分
+     *
+     * @param expression   ParserContext.TEMPLATE_EXPRESSION解析的表达式
+     * @param compilerMode 解析器的编译模式
+     * @return 模板表达式
+     */
+    static TemplateExpression of(Expression expression, SpelCompilerMode compilerMode) {
+        Expression[] expressions = expression instanceof CompositeStringExpression
+            ? ((CompositeStringExpression) expression).getExpressions()
+            : new Expression[]{expression};
+        List<String> literalList = new ArrayList<>();
+        List<CachedExpression> partList = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        for (Expression part : expressions) {
+            if (part instanceof LiteralExpression) {
+//                相邻的字面量合并
+                literal.append(part.getExpressionString());
+            } else {
+                literalList.add(literal.toString());
+                literal.setLength(0);
+                partList.add(new CachedExpression(part.getExpressionString(), part, compilerMode));
+            }
+        }
+        literalList.add(literal.toString());
+        return new TemplateExpression(literalList.toArray(new String[0]), partList.toArray(new CachedExpression[0]));
+    }
+
+    /**
+     * 输出模板
+     *
+     * @param context 当前上下文
+     * @return 字符串
+     */
+    String render(EvaluationContext context) {
+        if (parts.length == 0) {
+            return literals[0];
+        }
+        StringBuilder builder = new StringBuilder(lengthHint);
+        builder.append(literals[0]);
+        for (int i = 0; i < parts.length; i++) {
+            String value = parts[i].doGetValue(context, String.class);
+            if (value != null) {
+                builder.append(value);
+            }
+            builder.append(literals[i + 1]);
+        }
+        if (builder.length() > lengthHint) {
+            lengthHint = builder.length();
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 使用外部的解析方法输出模板(每个#{}部分按普通表达式解析)
+     *
+     * @param partFun 表达式 -> 值
+     * @return 字符串
+     */
+    String render(Function<String, String> partFun) {
+        if (parts.length == 0) {
+            return literals[0];
+        }
+        StringBuilder builder = new StringBuilder(lengthHint);
+        builder.append(literals[0]);
+        for (int i = 0; i < parts.length; i++) {
+            String value = partFun.apply(parts[i].getExpressionString());
+            if (value != null) {
+                builder.append(value);
+            }
+            builder.append(literals[i + 1]);
+        }
+        return builder.toString();
+    }
+
+    int getPartCount() {
+        return parts.length;
+    }
+
+    CachedExpression getPart(int index) {
+        return parts[index];
+    }
+
+}
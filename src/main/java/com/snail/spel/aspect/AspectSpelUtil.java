@@ -1,15 +1,26 @@
 package com.snail.spel.aspect;
 
 
+import com.snail.spel.SpelExpressionSet;
 import com.snail.spel.SpelUtil;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotationUtils;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 public enum AspectSpelUtil {
     ;
 
+    /**
+     * 方法 -> 注解类型 -> 表达式组(分两级查找, 命中时不需要创建组合键)
+     */
+    private static final Map<Method, Map<Class<? extends Annotation>, SpelExpressionSet>> expressionSetMap = new ConcurrentHashMap<>();
+
     /**
      * 从切面生成spel解析器
      *
@@ -37,11 +48,65 @@ public enum AspectSpelUtil {
         ProceedingJoinPoint joinPoint, String conditionExpression
     ) {
 
-        SpelUtil.SpelFunction spelFunction = generateSpelFunction(joinPoint);
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+
+//        入参在condition需要解析时才获取
+        return SpelUtil.generateSpelFunctionWithCondition(method, joinPoint::getArgs, conditionExpression);
+
+    }
+
+    /**
+     * 获取注解处的表达式组, 每个注解处只解析一次
+     * <p>
+     * 例: getExpressionSet(joinPoint, Lock.class, lock -> SpelExpressionSet.builder()
+     * .add(lock.key(), String.class).add(lock.condition(), Boolean.class).build())
+     *
+     * @param joinPoint      切面入参
+     * @param annotationType 注解类型
+     * @param parseFun       从注解生成表达式组的方法(同一注解类型请使用同一个方法)
+     * @param <A>            注解类型
+     * @return 表达式组, 方法上没有该注解时为null
+     */
+    public static <A extends Annotation> SpelExpressionSet getExpressionSet(
+        ProceedingJoinPoint joinPoint, Class<A> annotationType, Function<A, SpelExpressionSet> parseFun
+    ) {
+
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+
+        Map<Class<? extends Annotation>, SpelExpressionSet> annotationMap = expressionSetMap.get(method);
+        if (annotationMap != null) {
+            SpelExpressionSet expressionSet = annotationMap.get(annotationType);
+            if (expressionSet != null) {
+                return expressionSet;
+            }
+        }
+
+        A annotation = AnnotationUtils.findAnnotation(method, annotationType);
+        if (annotation == null) {
+            return null;
+        }
+
+        return expressionSetMap.computeIfAbsent(method, key -> new ConcurrentHashMap<>(4))
+            .computeIfAbsent(annotationType, key -> parseFun.apply(annotation));
+
+    }
+
+    /**
+     * 从切面一次解析注解上的一组表达式
+     *
+     * @param joinPoint      切面入参
+     * @param annotationType 注解类型
+     * @param parseFun       从注解生成表达式组的方法(同一注解类型请使用同一个方法)
+     * @param <A>            注解类型
+     * @return 按添加顺序的值, 方法上没有该注解时为null
+     */
+    public static <A extends Annotation> Object[] getValues(
+        ProceedingJoinPoint joinPoint, Class<A> annotationType, Function<A, SpelExpressionSet> parseFun
+    ) {
 
-        Boolean condition = spelFunction.tryParseValue(conditionExpression, () -> Boolean.FALSE, Boolean.class);
+        SpelExpressionSet expressionSet = getExpressionSet(joinPoint, annotationType, parseFun);
 
-        return condition ? spelFunction : null;
+        return expressionSet == null ? null : generateSpelFunction(joinPoint).getValues(expressionSet);
 
     }
 
@@ -0,0 +1,307 @@
+package com.snail.spel.aspect;
+
+import com.snail.spel.SpelUtil;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.expression.ParseException;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel.aspect
+ * @Description: 启动时扫描带注解的方法, 预先解析注解上的el表达式和方法入参名称, 提前发现不合法的表达式, 可选预热执行
+ * <p>
+ * 例: new SpelWarmUpRegistry()
+ * .register(Lock.class, lock -> new String[]{lock.key(), lock.condition()})
+ * .scan("com.snail.service")
+ * .assertValid();
+ * @date: 2026/10/18
+ */
+public final class SpelWarmUpRegistry {
+
+    /**
+     * 注解类型 -> 从注解获取el表达式的方法
+     */
+    private final Map<Class<? extends Annotation>, Function<Annotation, String[]>> expressionFunMap =
+        new LinkedHashMap<>();
+
+    private int warmUpIterations;
+
+    private Function<Method, Object[]> warmUpArgsFun = method -> new Object[method.getParameterCount()];
+
+    private ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+
+    /**
+     * 注册需要预解析的注解
+     *
+     * @param annotationType 注解类型
+     * @param expressionFun  从注解获取el表达式的方法(空白的表达式会被忽略)
+     * @param <A>            注解类型
+     * @return this
+     */
+    @SuppressWarnings("unchecked")
+    public <A extends Annotation> SpelWarmUpRegistry register(Class<A> annotationType, Function<A, String[]> expressionFun) {
+        expressionFunMap.put(annotationType, (Function<Annotation, String[]>) expressionFun);
+        return this;
+    }
+
+    /**
+     * 预热执行的次数, 默认0(只解析不执行)
+     *
+     * @param warmUpIterations 每个表达式执行的次数
+     * @return this
+     */
+    public SpelWarmUpRegistry warmUpIterations(int warmUpIterations) {
+        this.warmUpIterations = warmUpIterations;
+        return this;
+    }
+
+    /**
+     * 预热执行时使用的入参, 默认全部为null
+     *
+     * @param warmUpArgsFun 方法 -> 入参
+     * @return this
+     */
+    public SpelWarmUpRegistry warmUpArgs(Function<Method, Object[]> warmUpArgsFun) {
+        this.warmUpArgsFun = warmUpArgsFun;
+        return this;
+    }
+
+    public SpelWarmUpRegistry classLoader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+        return this;
+    }
+
+    /**
+     * 扫描包下的类
+     *
+     * @param basePackages 包名
+     * @return 预解析结果
+     */
+    public SpelWarmUpReport scan(String... basePackages) {
+        long start = System.nanoTime();
+        SpelWarmUpReport report = new SpelWarmUpReport();
+        ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver(classLoader);
+        MetadataReaderFactory metadataReaderFactory = new CachingMetadataReaderFactory(resolver);
+        Set<Method> visitedMethods = new HashSet<>();
+        for (String basePackage : basePackages) {
+            String pattern = ResourcePatternResolver.CLASSPATH_ALL_URL_PREFIX +
+                ClassUtils.convertClassNameToResourcePath(basePackage) + "/**/*.class";
+            try {
+                for (Resource resource : resolver.getResources(pattern)) {
+                    AnnotationMetadata metadata = metadataReaderFactory.getMetadataReader(resource).getAnnotationMetadata();
+//                    只加载有注解方法的类
+                    if (hasAnnotatedMethods(metadata)) {
+                        inspect(ClassUtils.forName(metadata.getClassName(), classLoader), visitedMethods, report);
+                    }
+                }
+            } catch (IOException | ClassNotFoundException | LinkageError e) {
+                throw new IllegalStateException("扫描包失败: " + basePackage, e);
+            }
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    /**
+     * 扫描spring容器中的bean
+     *
+     * @param beanFactory beanFactory(ApplicationContext)
+     * @return 预解析结果
+     */
+    public SpelWarmUpReport scan(ListableBeanFactory beanFactory) {
+        long start = System.nanoTime();
+        SpelWarmUpReport report = new SpelWarmUpReport();
+        Set<Method> visitedMethods = new HashSet<>();
+        Set<Class<?>> visitedClasses = new HashSet<>();
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            Class<?> beanType = beanFactory.getType(beanName, false);
+            if (beanType != null && visitedClasses.add(ClassUtils.getUserClass(beanType))) {
+                inspect(ClassUtils.getUserClass(beanType), visitedMethods, report);
+            }
+        }
+        report.elapsedNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    private boolean hasAnnotatedMethods(AnnotationMetadata metadata) {
+        for (Class<? extends Annotation> annotationType : expressionFunMap.keySet()) {
+            if (metadata.hasAnnotatedMethods(annotationType.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void inspect(Class<?> clazz, Set<Method> visitedMethods, SpelWarmUpReport report) {
+        ReflectionUtils.doWithMethods(clazz, method -> {
+            if (!visitedMethods.add(method)) {
+                return;
+            }
+            for (Map.Entry<Class<? extends Annotation>, Function<Annotation, String[]>> entry : expressionFunMap.entrySet()) {
+                Annotation annotation = AnnotationUtils.findAnnotation(method, entry.getKey());
+                if (annotation != null) {
+                    prepare(method, annotation, entry.getValue().apply(annotation), report);
+                }
+            }
+        }, ReflectionUtils.USER_DECLARED_METHODS);
+    }
+
+    private void prepare(Method method, Annotation annotation, String[] expressions, SpelWarmUpReport report) {
+        report.methodCount++;
+        SpelUtil.prepareMethod(method);
+        if (expressions == null) {
+            return;
+        }
+        List<String> validExpressions = new ArrayList<>(expressions.length);
+        for (String expression : expressions) {
+            if (StringUtils.isBlank(expression)) {
+                continue;
+            }
+            report.expressionCount++;
+            try {
+                SpelUtil.prepareExpression(expression);
+                validExpressions.add(expression);
+            } catch (ParseException e) {
+                report.invalidExpressions.add(
+                    new InvalidExpression(method, annotation.annotationType(), expression, e.getMessage())
+                );
+            }
+        }
+        if (warmUpIterations <= 0 || validExpressions.isEmpty()) {
+            return;
+        }
+        Object[] args = warmUpArgsFun.apply(method);
+        for (int i = 0; i < warmUpIterations; i++) {
+            for (String expression : validExpressions) {
+                try {
+                    SpelUtil.getValue(expression, method, args, Object.class);
+                } catch (RuntimeException e) {
+//                    预热入参不一定满足表达式 忽略执行异常
+                }
+            }
+        }
+    }
+
+    /**
+     * 预解析结果
+     */
+    public static final class SpelWarmUpReport {
+
+        private int methodCount;
+
+        private int expressionCount;
+
+        private long elapsedNanos;
+
+        private final List<InvalidExpression> invalidExpressions = new ArrayList<>();
+
+        public int getMethodCount() {
+            return methodCount;
+        }
+
+        public int getExpressionCount() {
+            return expressionCount;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public List<InvalidExpression> getInvalidExpressions() {
+            return Collections.unmodifiableList(invalidExpressions);
+        }
+
+        public boolean isValid() {
+            return invalidExpressions.isEmpty();
+        }
+
+        /**
+         * 有不合法的表达式时抛出异常(启动失败)
+         *
+         * @return this
+         */
+        public SpelWarmUpReport assertValid() {
+            if (!isValid()) {
+                throw new IllegalStateException("存在不合法的el表达式: " + invalidExpressions);
+            }
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "SpelWarmUpReport{" +
+                "methodCount=" + methodCount +
+                ", expressionCount=" + expressionCount +
+                ", elapsedNanos=" + elapsedNanos +
+                ", invalidExpressions=" + invalidExpressions +
+                '}';
+        }
+    }
+
+    /**
+     * 不合法的表达式
+     */
+    public static final class InvalidExpression {
+
+        private final Method method;
+
+        private final Class<? extends Annotation> annotationType;
+
+        private final String expression;
+
+        private final String message;
+
+        InvalidExpression(Method method, Class<? extends Annotation> annotationType, String expression, String message) {
+            this.method = method;
+            this.annotationType = annotationType;
+            this.expression = expression;
+            this.message = message;
+        }
+
+        public Method getMethod() {
+            return method;
+        }
+
+        public Class<? extends Annotation> getAnnotationType() {
+            return annotationType;
+        }
+
+        public String getExpression() {
+            return expression;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return method.getDeclaringClass().getName() + "#" + method.getName() +
+                " @" + annotationType.getSimpleName() + "(" + expression + "): " + message;
+        }
+    }
+
+}
@@ -1,10 +1,21 @@
 package com.snail.bit;
 
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * @version V1.0
@@ -48,6 +59,266 @@ public class BitMarkUtilTest {
 
     }
 
+    @Test
+    public void testLongMark() {
+        long mark = BitMarkUtil.createLongMark(Arrays.asList(WideEnum.W1, WideEnum.W40));
+        Assert.assertTrue(BitMarkUtil.isMark(mark, WideEnum.W40));
+        Assert.assertFalse(BitMarkUtil.isMark(mark, WideEnum.W8));
+        mark = BitMarkUtil.delMark(BitMarkUtil.addMark(mark, WideEnum.W63), WideEnum.W1);
+        Assert.assertEquals(EnumSet.of(WideEnum.W40, WideEnum.W63), BitMarkUtil.toEnumSet(mark, WideEnum.class));
+
+//        超出位数时抛出异常 不再静默写到低位
+        try {
+            BitMarkUtil.addMark(mark, WideEnum.W64);
+            Assert.fail();
+        } catch (ArithmeticException e) {
+            System.out.println(e.getMessage());
+        }
+        try {
+            BitMarkUtil.toIntMark(mark);
+            Assert.fail();
+        } catch (ArithmeticException e) {
+            System.out.println(e.getMessage());
+        }
+        Assert.assertEquals(-1, BitMarkUtil.toIntMark(BitMarkUtil.toLongMark(-1)));
+
+//        读取/删除超出位数的标记同样抛出异常, int标记第32位不再回绕到第0位
+        long longMark = mark;
+        Assert.assertThrows(ArithmeticException.class, () -> BitMarkUtil.isMark(longMark, WideEnum.W64));
+        Assert.assertThrows(ArithmeticException.class, () -> BitMarkUtil.delMark(longMark, WideEnum.W64));
+        Assert.assertThrows(ArithmeticException.class, () -> BitMarkUtil.addMark(0, WideEnum.W32));
+        Assert.assertThrows(ArithmeticException.class, () -> BitMarkUtil.isMark(1, WideEnum.W32));
+        Assert.assertThrows(ArithmeticException.class, () -> BitMarkUtil.delMark(1, WideEnum.W32));
+        Assert.assertThrows(ArithmeticException.class, () -> BitMarkUtil.createMark(Arrays.asList(WideEnum.W0, WideEnum.W32)));
+        Assert.assertEquals(Integer.MIN_VALUE, BitMarkUtil.addMark(0, WideEnum.W31));
+    }
+
+    @Test
+    public void testBitMark() {
+        BitMark bitMark = BitMarkUtil.createBitMark(WideEnum.class, Arrays.asList(WideEnum.W3, WideEnum.W65));
+        Assert.assertTrue(bitMark.isMark(WideEnum.W65));
+        Assert.assertFalse(bitMark.isMark(WideEnum.W64));
+        System.out.println(bitMark);
+
+        BitMark other = BitMark.of(WideEnum.class).addMark(WideEnum.W65).addMark(WideEnum.W69);
+        Assert.assertTrue(bitMark.intersects(other));
+        Assert.assertEquals(EnumSet.of(WideEnum.W65), bitMark.copy().intersect(other).toEnumSet(WideEnum.class));
+        Assert.assertEquals(3, bitMark.union(other).cardinality());
+        Assert.assertTrue(bitMark.containsAll(other));
+        Assert.assertEquals(EnumSet.of(WideEnum.W3), bitMark.andNot(other).toEnumSet(WideEnum.class));
+        Assert.assertEquals(1 << 3, bitMark.toIntMark());
+
+        BitMark small = BitMark.fromIntMark(TestEnum.values().length, 5);
+        Assert.assertEquals(EnumSet.of(TestEnum.ONE, TestEnum.THREE), small.toEnumSet(TestEnum.class));
+        try {
+            small.union(other);
+            Assert.fail();
+        } catch (ArithmeticException e) {
+            System.out.println(e.getMessage());
+        }
+        try {
+            small.addMark(WideEnum.W3);
+            Assert.fail();
+        } catch (ArithmeticException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+
+    @Test
+    public void testBitMarkStore() {
+        int rowCount = 200_000;
+        BitMarkStore store = new BitMarkStore();
+        for (int i = 0; i < rowCount; i++) {
+            if (i % 2 == 0) {
+                store.addMark(i, TestEnum.ONE);
+            }
+            if (i % 3 == 0) {
+                store.addMark(i, TestEnum.TWO);
+            }
+        }
+        store.addMark(new int[]{6, 12}, TestEnum.THREE);
+        store.delMark(new int[]{12}, TestEnum.THREE);
+//        null枚举不增加行数, 和批量添加一致
+        int storeSize = store.size();
+        Assert.assertEquals(0L, store.addMark(rowCount + 10, null));
+        store.addMark(new int[]{rowCount + 10}, null);
+        Assert.assertEquals(storeSize, store.size());
+
+        BitMarkQuery query = BitMarkQuery.create().with(TestEnum.ONE).with(TestEnum.TWO).without(TestEnum.THREE);
+        int[] sequentialRows = store.find(query, Integer.MAX_VALUE);
+        int[] parallelRows = store.find(query, 0);
+        Assert.assertArrayEquals(sequentialRows, store.find(query, 0, 4));
+        Assert.assertArrayEquals(sequentialRows, parallelRows);
+        Assert.assertEquals(store.count(query), parallelRows.length);
+        Assert.assertEquals(0, sequentialRows[0]);
+        Assert.assertEquals(12, sequentialRows[1]);
+        for (int row : sequentialRows) {
+            Assert.assertEquals(0, row % 6);
+        }
+//        最后一行没有写入过标记
+        Assert.assertEquals(rowCount - 1, store.size());
+        Assert.assertEquals(0L, store.getMark(rowCount - 1));
+    }
+
+    @Test
+    public void testBitMarkIndex() throws IOException {
+        int rowCount = 300_000;
+        Random random = new Random(42);
+        BitMarkStore store = new BitMarkStore(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            long mark = 0L;
+//            ONE连续 TWO稀疏 THREE稠密
+            if (i >= 1000 && i < 150_000) {
+                mark = BitMarkUtil.addMark(mark, TestEnum.ONE);
+            }
+            if (random.nextInt(100) == 0) {
+                mark = BitMarkUtil.addMark(mark, TestEnum.TWO);
+            }
+            if (random.nextBoolean()) {
+                mark = BitMarkUtil.addMark(mark, TestEnum.THREE);
+            }
+            store.setMark(i, mark);
+        }
+        BitMarkIndex<TestEnum> index = BitMarkIndex.of(TestEnum.class, store);
+        BitMarkQuery[] queries = {
+            BitMarkQuery.create().with(TestEnum.ONE),
+            BitMarkQuery.create().with(TestEnum.TWO).with(TestEnum.THREE),
+            BitMarkQuery.create().with(TestEnum.THREE).without(TestEnum.ONE).without(TestEnum.TWO),
+        };
+        for (BitMarkQuery query : queries) {
+            Assert.assertArrayEquals(store.find(query), index.query(query).toArray());
+            Assert.assertEquals(store.count(query), index.count(query));
+        }
+        CompressedBitmap union = index.getBitmap(TestEnum.ONE).or(index.getBitmap(TestEnum.TWO));
+        Assert.assertEquals(
+            index.cardinality(TestEnum.ONE) + index.cardinality(TestEnum.TWO)
+                - index.getBitmap(TestEnum.ONE).andCardinality(index.getBitmap(TestEnum.TWO)),
+            union.cardinality()
+        );
+
+//        增量更新
+        index.update(5, store.getMark(5), BitMarkUtil.createLongMark(Arrays.asList(TestEnum.ONE, TestEnum.TWO)));
+        Assert.assertTrue(index.isMark(5, TestEnum.ONE));
+        Assert.assertTrue(index.isMark(5, TestEnum.TWO));
+        Assert.assertFalse(index.isMark(5, TestEnum.THREE));
+
+//        序列化后按名称加载, 枚举调整顺序不影响
+        index.runOptimize();
+        System.out.println(index.getBitmap(TestEnum.ONE));
+        File file = File.createTempFile("bit-mark-index", ".bin");
+        file.deleteOnExit();
+        index.writeTo(file.toPath());
+        BitMarkIndex<ReorderedEnum> loaded = BitMarkIndex.load(ReorderedEnum.class, file.toPath());
+        Assert.assertArrayEquals(index.getBitmap(TestEnum.ONE).toArray(), loaded.getBitmap(ReorderedEnum.ONE).toArray());
+        Assert.assertArrayEquals(index.getBitmap(TestEnum.THREE).toArray(), loaded.getBitmap(ReorderedEnum.THREE).toArray());
+        loaded.delMark(2000, ReorderedEnum.ONE);
+        Assert.assertFalse(loaded.isMark(2000, ReorderedEnum.ONE));
+        Assert.assertEquals(index.cardinality(TestEnum.ONE) - 1, loaded.cardinality(ReorderedEnum.ONE));
+    }
+
+    @Test
+    public void testCompressedBitmap() {
+        Random random = new Random(7);
+        CompressedBitmap bitmap = new CompressedBitmap();
+        BitSet expected = new BitSet();
+//        容器在数组/位图/区间之间转换
+        for (int i = 0; i < 100_000; i++) {
+            int value = random.nextInt(1 << 18);
+            if (random.nextInt(3) == 0) {
+                bitmap.remove(value);
+                expected.clear(value);
+            } else {
+                bitmap.add(value);
+                expected.set(value);
+            }
+            if (i % 30_000 == 0) {
+                bitmap.runOptimize();
+            }
+        }
+        for (int i = 200_000; i < 230_000; i++) {
+            bitmap.add(i);
+            expected.set(i);
+        }
+        bitmap.runOptimize();
+        bitmap.remove(210_000);
+        expected.clear(210_000);
+        Assert.assertArrayEquals(expected.stream().toArray(), bitmap.toArray());
+        Assert.assertEquals(expected.cardinality(), bitmap.cardinality());
+    }
+
+    @Test
+    public void testConcurrentBitMarkFun() throws InterruptedException {
+        BitMarkUtil.ConcurrentBitMarkFunction bitMarkFunction = BitMarkUtil.generateConcurrentBitMarkFunction(0L);
+        WideEnum[] flags = WideEnum.values();
+        int threadCount = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+//        每个线程反复添加删除自己的标记位, 最后保留, 不丢失其他线程的更新
+        for (int t = 0; t < threadCount; t++) {
+            WideEnum flag = flags[t * 7];
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    bitMarkFunction.addMark(flag);
+                    bitMarkFunction.delMark(flag);
+                }
+                bitMarkFunction.addMark(flag);
+            });
+        }
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        Assert.assertEquals(threadCount, Long.bitCount(bitMarkFunction.getMark()));
+
+        BitMarkQuery query = BitMarkQuery.create().with(WideEnum.W0).without(WideEnum.W1);
+        long addMask = BitMarkUtil.addMark(0L, WideEnum.W1);
+        long delMask = BitMarkUtil.addMark(0L, WideEnum.W0);
+        Assert.assertTrue(bitMarkFunction.compareAndSetMarks(query, addMask, delMask));
+        Assert.assertFalse(bitMarkFunction.compareAndSetMarks(query, addMask, delMask));
+        Assert.assertTrue(bitMarkFunction.isMark(WideEnum.W1));
+        Assert.assertFalse(bitMarkFunction.isMark(WideEnum.W0));
+
+        long before = bitMarkFunction.getAndUpdate(mark -> mark & 0xFFL);
+        Assert.assertEquals(before & 0xFFL, bitMarkFunction.getMark());
+        Assert.assertTrue(bitMarkFunction.compareAndSetMarks(before & 0xFFL, 0L));
+        Assert.assertEquals(0, bitMarkFunction.getIntMark());
+    }
+
+    @Test
+    public void testMaskTableAndCodec() {
+        EnumMaskTable<TestEnum> maskTable = EnumMaskTable.of(TestEnum.class);
+        Assert.assertSame(maskTable, EnumMaskTable.of(TestEnum.class));
+        long mask = maskTable.mask(TestEnum.ONE, TestEnum.THREE);
+        Assert.assertEquals(BitMarkUtil.createMark(Arrays.asList(TestEnum.ONE, TestEnum.THREE)), mask);
+        Assert.assertTrue(BitMarkUtil.isMarkAll(mask | maskTable.bit(TestEnum.TWO), mask));
+        Assert.assertFalse(BitMarkUtil.isMarkAll(maskTable.bit(TestEnum.ONE), mask));
+        Assert.assertTrue(BitMarkUtil.isMarkAny(maskTable.bit(TestEnum.ONE), mask));
+        Assert.assertEquals(7L, maskTable.allMask());
+
+        int[] marks = new int[1000];
+        for (int i = 0; i < marks.length; i++) {
+            marks[i] = i & 7;
+        }
+        byte[] bytes = BitMarkCodec.of(TestEnum.class).encode(marks);
+        Assert.assertEquals(BitMarkCodec.of(TestEnum.class).encodedSize(marks.length), bytes.length);
+        Assert.assertArrayEquals(marks, BitMarkCodec.of(TestEnum.class).decodeIntMarks(bytes));
+
+//        按名称解码到顺序不同的枚举
+        long[] reordered = BitMarkCodec.of(ReorderedEnum.class).decode(bytes);
+        for (int i = 0; i < marks.length; i++) {
+            Assert.assertEquals(names(BitMarkUtil.toEnumSet(marks[i], TestEnum.class)), names(BitMarkUtil.toEnumSet(reordered[i], ReorderedEnum.class)));
+        }
+        try {
+            BitMarkCodec.of(RemovedEnum.class).decode(bytes);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            System.out.println(e.getMessage());
+        }
+        long[] removed = BitMarkCodec.lenient(RemovedEnum.class).decode(bytes);
+        Assert.assertEquals(EnumSet.of(RemovedEnum.THREE), BitMarkUtil.toEnumSet(removed[6], RemovedEnum.class));
+    }
+
+    private Set<String> names(EnumSet<?> enumSet) {
+        return enumSet.stream().map(Enum::name).collect(Collectors.toSet());
+    }
+
     private void printBit(int num) {
         System.out.println(Integer.toBinaryString(num));
     }
@@ -58,4 +329,19 @@ public class BitMarkUtilTest {
         THREE
     }
 
+    enum ReorderedEnum {
+        THREE,
+        ONE,
+        TWO
+    }
+
+    enum RemovedEnum {
+        ONE,
+        THREE
+    }
+
+    enum WideEnum {
+        W0, W1, W2, W3, W4, W5, W6, W7, W8, W9, W10, W11, W12, W13, W14, W15, W16, W17, W18, W19, W20, W21, W22, W23, W24, W25, W26, W27, W28, W29, W30, W31, W32, W33, W34, W35, W36, W37, W38, W39, W40, W41, W42, W43, W44, W45, W46, W47, W48, W49, W50, W51, W52, W53, W54, W55, W56, W57, W58, W59, W60, W61, W62, W63, W64, W65, W66, W67, W68, W69
+    }
+
 }
@@ -3,13 +3,34 @@ package com.snail.lambda;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.SneakyThrows;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * @version V1.0
@@ -60,6 +81,380 @@ public class LambdaTest {
         System.out.println(LambdaUtil.distinct(testObjList, TestObj::getTargetId));
     }
 
+    @Test
+    public void testPrimitiveKey() {
+        List<TestObj> testObjList = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            testObjList.add(new TestObj(i % 3000, i));
+        }
+
+        IntObjectMap<TestObj> intMap = LambdaUtil.toIntMap(testObjList, TestObj::getTargetId);
+        Assert.assertEquals(LambdaUtil.toMap(testObjList, TestObj::getTargetId).size(), intMap.size());
+        Assert.assertEquals(Integer.valueOf(9000), intMap.get(0).getMarkId());
+        Assert.assertEquals(Integer.valueOf(8999), intMap.get(2999).getMarkId());
+        Assert.assertNull(intMap.get(3000));
+
+        LongObjectMap<TestObj> longMap = LambdaUtil.toLongMap(testObjList, testObj -> testObj.getMarkId() * 1_000_000_000L);
+        Assert.assertEquals(testObjList.size(), longMap.size());
+        Assert.assertEquals(Integer.valueOf(7), longMap.get(7_000_000_000L).getMarkId());
+
+        Assert.assertEquals(
+            LambdaUtil.distinct(testObjList, TestObj::getTargetId),
+            LambdaUtil.distinctByInt(testObjList, TestObj::getTargetId)
+        );
+        Assert.assertEquals(
+            LambdaUtil.distinct(testObjList, testObj -> testObj.getTargetId() % 7),
+            LambdaUtil.distinctByLong(testObjList, testObj -> testObj.getTargetId() % 7)
+        );
+    }
+
+    @Test
+    public void testParallelDistinct() {
+        List<TestObj> testObjList = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            testObjList.add(new TestObj(i % 7 == 0 ? null : (i * 31) % 20_000, i));
+        }
+        List<TestObj> sequential = LambdaUtil.distinct(testObjList, TestObj::getTargetId);
+        Assert.assertEquals(sequential, LambdaUtil.distinct(testObjList, TestObj::getTargetId, true));
+        Assert.assertEquals(sequential, LambdaUtil.distinct(testObjList, TestObj::getTargetId, 0));
+        Assert.assertEquals(sequential, LambdaUtil.distinctAuto(testObjList, TestObj::getTargetId));
+//        单核环境也验证分块合并的结果
+        Assert.assertEquals(sequential, OrderedParallelDistinct.distinct(testObjList, TestObj::getTargetId, 4));
+        Assert.assertEquals(
+            LambdaUtil.distinct(testObjList.subList(0, 3), TestObj::getTargetId),
+            LambdaUtil.distinct(testObjList.subList(0, 3), TestObj::getTargetId, true)
+        );
+    }
+
+    @Test
+    public void testBoundedDistinct() {
+        WindowedDistinctPredicate<Integer, Integer> countWindow = LambdaUtil.windowedDistinctPredicate(i -> i % 100, 10);
+        List<Integer> result = IntStream.range(0, 1000).boxed().filter(countWindow).collect(Collectors.toList());
+//        每个键在被淘汰后重新出现
+        Assert.assertEquals(1000, result.size());
+        Assert.assertEquals(10, countWindow.size());
+        Assert.assertEquals(3, IntStream.of(1, 2, 1, 3, 2).boxed().filter(LambdaUtil.windowedDistinctPredicate(i -> i, 10)).count());
+        System.out.println(countWindow);
+
+        AtomicLong clock = new AtomicLong();
+        WindowedDistinctPredicate<Integer, Integer> timeWindow = new WindowedDistinctPredicate<>(
+            i -> i, 0, 10, TimeUnit.SECONDS, clock::get
+        );
+        Assert.assertTrue(timeWindow.test(1));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        Assert.assertFalse(timeWindow.test(1));
+        Assert.assertTrue(timeWindow.test(2));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(6));
+        Assert.assertTrue(timeWindow.test(1));
+        Assert.assertFalse(timeWindow.test(2));
+        Assert.assertEquals(2, timeWindow.size());
+
+        BloomDistinctPredicate<Integer, Integer> bloom = LambdaUtil.approximateDistinctPredicate(i -> i, 100_000, 0.01);
+        long passed = IntStream.range(0, 200_000).map(i -> i % 100_000).boxed().filter(bloom).count();
+        System.out.println(bloom);
+        Assert.assertTrue(passed <= 100_000);
+        Assert.assertTrue(passed > 100_000 * 0.97);
+        Assert.assertTrue(bloom.memoryBytes() < 200_000);
+
+//        hashCode相同的不同键不会被当作重复(Long.hashCode为高低32位异或, 字符串Aa和BB的hashCode相同)
+        BloomDistinctPredicate<Long, Long> longBloom = LambdaUtil.approximateDistinctPredicate(i -> i, 1000, 0.01);
+        BloomDistinctPredicate<Long, Long> longKeyBloom = LambdaUtil.approximateDistinctLongPredicate(i -> i, 1000, 0.01);
+        int collidingPassed = 0;
+        for (long i = 1; i <= 100; i++) {
+            Assert.assertEquals(Long.hashCode(i << 32), Long.hashCode(i));
+            collidingPassed += (longBloom.test(i) ? 1 : 0) + (longBloom.test(i << 32) ? 1 : 0);
+            Assert.assertTrue(longKeyBloom.test(i) && longKeyBloom.test(i << 32));
+            Assert.assertFalse(longKeyBloom.test(i << 32));
+        }
+        Assert.assertTrue(collidingPassed > 190);
+        BloomDistinctPredicate<String, String> stringBloom = LambdaUtil.approximateDistinctPredicate(str -> str, 1000, 0.01);
+        Assert.assertEquals("Aa".hashCode(), "BB".hashCode());
+        Assert.assertTrue(stringBloom.test("Aa"));
+        Assert.assertTrue(stringBloom.test("BB"));
+        Assert.assertFalse(stringBloom.test("Aa"));
+    }
+
+    @Test
+    public void testMultiIndex() {
+        List<TestObj> testObjList = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            testObjList.add(new TestObj(i % 9 == 0 ? null : i % 1000, i));
+        }
+        MultiIndexBuilder<TestObj> builder = LambdaUtil.multiIndexBuilder();
+        MultiIndexBuilder.UniqueIndex<TestObj, Integer, TestObj> byTarget = builder.unique(TestObj::getTargetId);
+        MultiIndexBuilder.UniqueIndex<TestObj, Integer, Integer> markByTarget = builder.unique(TestObj::getTargetId, TestObj::getMarkId);
+        MultiIndexBuilder.GroupIndex<TestObj, Integer, Integer> groupByMod = builder.group(testObj -> testObj.getMarkId() % 7, TestObj::getMarkId);
+        MultiIndexBuilder.DistinctIndex<TestObj, Integer> targetIds = builder.distinct(TestObj::getTargetId);
+
+        MultiIndexBuilder.MultiIndex<TestObj> index = builder.build(testObjList);
+        Assert.assertEquals(LambdaUtil.toMap(testObjList, TestObj::getTargetId), index.get(byTarget));
+        Assert.assertEquals(Integer.valueOf(49_999), index.get(markByTarget).get(999));
+        Assert.assertEquals(
+            testObjList.stream().collect(Collectors.groupingBy(testObj -> testObj.getMarkId() % 7, Collectors.mapping(TestObj::getMarkId, Collectors.toList()))),
+            index.get(groupByMod)
+        );
+        Assert.assertEquals(
+            LambdaUtil.toList(LambdaUtil.distinct(testObjList, TestObj::getTargetId), TestObj::getTargetId, true),
+            new ArrayList<>(index.get(targetIds))
+        );
+
+//        分块合并后的结果和串行一致(包括分组内和去重投影的顺序)
+        MultiIndexBuilder.MultiIndex<TestObj> parallelIndex = builder.build(testObjList, 4, 256);
+        Assert.assertEquals(index.get(byTarget), parallelIndex.get(byTarget));
+        Assert.assertEquals(index.get(markByTarget), parallelIndex.get(markByTarget));
+        Assert.assertEquals(index.get(groupByMod), parallelIndex.get(groupByMod));
+        Assert.assertEquals(new ArrayList<>(index.get(targetIds)), new ArrayList<>(parallelIndex.get(targetIds)));
+        Assert.assertEquals(index.get(groupByMod), builder.build(testObjList, true).get(groupByMod));
+
+        MultiIndexBuilder<TestObj> otherBuilder = LambdaUtil.multiIndexBuilder();
+        Assert.assertThrows(IllegalArgumentException.class, () -> otherBuilder.build(testObjList).get(byTarget));
+    }
+
+    @Test
+    public void testCompactMap() {
+        List<TestObj> testObjList = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            testObjList.add(new TestObj(i % 11 == 0 ? null : i % 5000, i));
+        }
+        Map<Integer, TestObj> hashMap = LambdaUtil.toMap(testObjList, TestObj::getTargetId);
+        CompactMap<Integer, TestObj> compactMap = LambdaUtil.toCompactMap(testObjList, TestObj::getTargetId);
+        Assert.assertEquals(hashMap, compactMap);
+        Assert.assertEquals(compactMap, hashMap);
+        Assert.assertEquals(hashMap.hashCode(), compactMap.hashCode());
+        Assert.assertEquals(Integer.valueOf(19_998), compactMap.get(null).getMarkId());
+        Assert.assertNull(compactMap.get(5000));
+        Assert.assertFalse(compactMap.containsKey(-1));
+        Assert.assertThrows(UnsupportedOperationException.class, () -> compactMap.put(1, null));
+
+        CompactMap<Integer, Integer> sumMap = LambdaUtil.toCompactMap(
+            testObjList, testObj -> testObj.getMarkId() % 3, TestObj::getMarkId, Integer::sum
+        );
+        Assert.assertEquals(3, sumMap.size());
+        Assert.assertEquals(testObjList.stream().mapToInt(TestObj::getMarkId).sum(), sumMap.values().stream().mapToInt(Integer::intValue).sum());
+        Assert.assertEquals(sumMap, CompactMap.copyOf(new HashMap<>(sumMap)));
+        Assert.assertTrue(LambdaUtil.toCompactMap(new ArrayList<TestObj>(), TestObj::getTargetId).isEmpty());
+    }
+
+    @Test
+    public void testMemoize() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MemoizedFunction<Integer, String> slow = LambdaUtil.memoize(id -> {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return "v" + id;
+        }, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> slow.apply(1)));
+            }
+            started.await();
+//            等待其他线程都进入等待
+            TimeUnit.MILLISECONDS.sleep(50);
+            release.countDown();
+            for (Future<String> future : futures) {
+                Assert.assertEquals("v1", future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+//        同时未命中的线程共享一次计算
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(7, slow.stats().getHitCount());
+        Assert.assertEquals(1, slow.stats().getMissCount());
+
+//        容量很小时正在计算的键也不会被淘汰
+        Map<Integer, AtomicInteger> keyCalls = new ConcurrentHashMap<>();
+        CountDownLatch smallStarted = new CountDownLatch(1);
+        CountDownLatch smallRelease = new CountDownLatch(1);
+        MemoizedFunction<Integer, String> small = LambdaUtil.memoize(id -> {
+            keyCalls.computeIfAbsent(id, key -> new AtomicInteger()).incrementAndGet();
+            if (id == 1) {
+                smallStarted.countDown();
+                try {
+                    smallRelease.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            return "v" + id;
+        }, 2);
+        ExecutorService smallExecutor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> loading = smallExecutor.submit(() -> small.apply(1));
+            smallStarted.await();
+            for (int i = 2; i <= 5; i++) {
+                small.apply(i);
+            }
+            smallRelease.countDown();
+            Assert.assertEquals("v1", loading.get());
+        } finally {
+            smallExecutor.shutdown();
+        }
+        Assert.assertEquals("v1", small.apply(1));
+        Assert.assertEquals(1, keyCalls.get(1).get());
+        Assert.assertEquals(2, small.size());
+
+        AtomicLong clock = new AtomicLong();
+        AtomicInteger loads = new AtomicInteger();
+        MemoizedFunction<Integer, Integer> ttl = new MemoizedFunction<>(
+            i -> {
+                loads.incrementAndGet();
+                if (i < 0) {
+                    throw new IllegalArgumentException("negative");
+                }
+                return i * 2;
+            }, 3, 10, TimeUnit.SECONDS, clock::get
+        );
+        Assert.assertEquals(Integer.valueOf(2), ttl.apply(1));
+        Assert.assertEquals(Integer.valueOf(2), ttl.apply(1));
+        Assert.assertEquals(1, loads.get());
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(11));
+        Assert.assertEquals(Integer.valueOf(2), ttl.apply(1));
+        Assert.assertEquals(2, loads.get());
+
+        ttl.apply(2);
+        ttl.apply(3);
+        ttl.apply(1);
+        ttl.apply(4);
+        Assert.assertEquals(3, ttl.size());
+        Assert.assertEquals(1, ttl.stats().getEvictionCount());
+//        1最近访问过, 被淘汰的是2
+        ttl.apply(1);
+        Assert.assertEquals(5, loads.get());
+        ttl.apply(2);
+        Assert.assertEquals(6, loads.get());
+
+//        异常不缓存
+        Assert.assertThrows(IllegalArgumentException.class, () -> ttl.apply(-1));
+        Assert.assertThrows(IllegalArgumentException.class, () -> ttl.apply(-1));
+        Assert.assertEquals(8, loads.get());
+        Assert.assertEquals(2, ttl.stats().getFailureCount());
+
+//        过期时间从计算完成时开始算, 计算时间超过ttl时不会立刻重新计算
+        AtomicInteger slowLoads = new AtomicInteger();
+        MemoizedFunction<Integer, Integer> slowTtl = new MemoizedFunction<>(i -> {
+            slowLoads.incrementAndGet();
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(20));
+            return i;
+        }, 3, 10, TimeUnit.SECONDS, clock::get);
+        slowTtl.apply(1);
+        slowTtl.apply(1);
+        Assert.assertEquals(1, slowLoads.get());
+        System.out.println(ttl);
+
+//        @SneakyThrows抛出的受检异常也不缓存, 之后的调用不会一直等待
+        MemoizedFunction<Integer, Integer> sneaky = new MemoizedFunction<>(this::sneakyLoad, 4, 0, TimeUnit.SECONDS, System::nanoTime);
+        Assert.assertThrows(IOException.class, () -> sneaky.apply(1));
+        Assert.assertThrows(IOException.class, () -> sneaky.apply(1));
+        Assert.assertEquals(0, sneaky.size());
+        Assert.assertEquals(2, sneaky.stats().getFailureCount());
+    }
+
+    @SneakyThrows
+    private Integer sneakyLoad(Integer i) {
+        throw new IOException("load " + i);
+    }
+
+    @Test
+    public void testExternalDistinct() throws IOException {
+        List<Long> source = new ArrayList<>();
+        for (long i = 0; i < 200_000; i++) {
+            source.add((i * 7919) % 50_000);
+        }
+        Path tempDir = Files.createTempDirectory("spill-test");
+        try {
+            List<Long> spilled = new ArrayList<>();
+            long count = LambdaUtil.externalDistinct(source.iterator(), i -> i, SpillCodec.LONG, 1000, 8, tempDir, spilled::add);
+            Assert.assertEquals(50_000, count);
+            Assert.assertEquals(new HashSet<>(LambdaUtil.distinct(source, i -> i)), new HashSet<>(spilled));
+            Assert.assertEquals(spilled.size(), new HashSet<>(spilled).size());
+//            没有超过阈值时不溢写, 保持源顺序
+            List<Long> inMemory = new ArrayList<>();
+            LambdaUtil.externalDistinct(source.iterator(), i -> i, SpillCodec.LONG, 100_000, inMemory::add);
+            Assert.assertEquals(LambdaUtil.distinct(source, i -> i), inMemory);
+
+            List<String> words = LambdaUtil.toList(source, i -> (i % 3000) + ":" + i);
+            Map<String, String> spilledMap = new HashMap<>();
+            LambdaUtil.externalToMap(words.iterator(), word -> word.substring(0, word.indexOf(':')), SpillCodec.STRING, 100, 16, tempDir, spilledMap::put);
+            Assert.assertEquals(LambdaUtil.toMap(words, word -> word.substring(0, word.indexOf(':'))), spilledMap);
+
+//            分区数超过默认值, 且映射段很小(元素跨段读取)
+            int partitionCount = LambdaUtil.DEFAULT_SPILL_PARTITIONS * 2;
+            List<String> windowed = new ArrayList<>();
+            long windowedCount = new ExternalPartitioner<String, String>(word -> word, SpillCodec.STRING, 100, partitionCount, tempDir, 4099)
+                .distinct(words.iterator(), windowed::add);
+            Assert.assertEquals(new HashSet<>(words).size(), windowedCount);
+            Assert.assertEquals(new HashSet<>(words), new HashSet<>(windowed));
+            Map<String, String> manyPartitionMap = new HashMap<>();
+            LambdaUtil.externalToMap(words.iterator(), word -> word.substring(0, word.indexOf(':')), SpillCodec.STRING, 100, partitionCount, tempDir, manyPartitionMap::put);
+            Assert.assertEquals(spilledMap, manyPartitionMap);
+            try (Stream<Path> files = Files.list(tempDir)) {
+                Assert.assertEquals(0, files.count());
+            }
+        } finally {
+            Files.deleteIfExists(tempDir);
+        }
+    }
+
+    @Test
+    public void testBatchEnricher() {
+        List<TestObj> testObjList = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            testObjList.add(new TestObj(i, i % 10));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            Set<Integer> failedOnce = ConcurrentHashMap.newKeySet();
+            BatchEnricher<Integer, String> enricher = LambdaUtil.<Integer, String>batchEnricher(ids -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(2);
+                    if (ids.get(0) % 300 == 0 && failedOnce.add(ids.get(0))) {
+                        throw new IllegalStateException("fail " + ids.get(0));
+                    }
+                    return LambdaUtil.toList(ids, id -> "v" + id);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    running.decrementAndGet();
+                }
+            }, executor).chunkSize(30).concurrency(3).retry(1, 1, TimeUnit.MILLISECONDS);
+
+            List<String> result = LambdaUtil.toList(testObjList, TestObj::getTargetId, enricher);
+            Assert.assertEquals(LambdaUtil.toList(testObjList, testObj -> "v" + testObj.getTargetId()), result);
+            Assert.assertTrue(maxRunning.get() <= 3);
+            Assert.assertFalse(failedOnce.isEmpty());
+
+            Map<String, String> resultMap = LambdaUtil.toMap(
+                LambdaUtil.toList(testObjList, TestObj::getTargetId), enricher, Function.identity()
+            );
+            Assert.assertEquals(1000, resultMap.size());
+
+//            重试次数用完后抛出原始异常
+            BatchEnricher<Integer, String> failing = LambdaUtil.<Integer, String>batchEnricher(ids -> {
+                throw new IllegalArgumentException("always");
+            }, executor).chunkSize(100).retry(2, 0, TimeUnit.MILLISECONDS);
+            IllegalArgumentException e = Assert.assertThrows(
+                IllegalArgumentException.class, () -> LambdaUtil.toList(testObjList, TestObj::getTargetId, failing)
+            );
+            Assert.assertEquals(2, e.getSuppressed().length);
+            Assert.assertTrue(LambdaUtil.toList(new ArrayList<TestObj>(), TestObj::getTargetId, failing).isEmpty());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
 
     @Data
     @AllArgsConstructor
@@ -0,0 +1,337 @@
+package com.snail.spel;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.expression.EvaluationException;
+import org.springframework.expression.TypedValue;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel
+ * @Description:
+ * @date: 2026/10/18
+ */
+@RunWith(JUnit4.class)
+public class SpelUtilTest {
+
+    @After
+    public void reset() {
+        SpelUtil.setCompilerMode(SpelCompilerMode.OFF);
+        SpelUtil.setExpressionCacheCapacity(SpelUtil.DEFAULT_EXPRESSION_CACHE_CAPACITY);
+    }
+
+    @Test
+    public void testExpressionCache() {
+        SpelUtil.setExpressionCacheCapacity(4);
+
+        SpelUtil.SpelFunction spelFunction = SpelUtil.generateSpelFunction(Collections.singletonMap("num", 1));
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(Integer.valueOf(i + 1), spelFunction.getValue("#num + " + i, Integer.class));
+        }
+        spelFunction.getValue("#num + 9", Integer.class);
+
+        ExpressionCacheStats stats = SpelUtil.getExpressionCacheStats();
+        System.out.println(stats);
+        Assert.assertEquals(4, stats.getSize());
+        Assert.assertEquals(1, stats.getHitCount());
+        Assert.assertEquals(10, stats.getMissCount());
+        Assert.assertEquals(6, stats.getEvictionCount());
+
+//        命中的表达式不会被优先淘汰
+        SpelUtil.setExpressionCacheCapacity(4);
+        for (int i = 0; i < 4; i++) {
+            spelFunction.getValue("#num + " + i, Integer.class);
+        }
+        spelFunction.getValue("#num + 0", Integer.class);
+        spelFunction.getValue("#num + 4", Integer.class);
+        Assert.assertNotNull(SpelUtil.getCompileStatus("#num + 0"));
+        Assert.assertNull(SpelUtil.getCompileStatus("#num + 1"));
+    }
+
+    @Test
+    public void testMethodContext() throws NoSuchMethodException {
+        Method method = SpelUtilTest.class.getDeclaredMethod("sample", String.class, TestOrder.class, String[].class);
+        Object[] args = {"u1", new TestOrder(7L, "snail"), new String[]{"a", "b"}};
+
+        SpelUtil.SpelFunction spelFunction = SpelUtil.generateSpelFunction(method, args);
+        Assert.assertEquals("u1", spelFunction.getValue("#userId", String.class));
+        Assert.assertEquals("u1", spelFunction.getValue("#a0", String.class));
+        Assert.assertEquals(Long.valueOf(7), spelFunction.getValue("#p1.id", Long.class));
+        Assert.assertEquals("snail", spelFunction.getValue("#order.name", String.class));
+        Assert.assertEquals(Integer.valueOf(2), spelFunction.getValue("#tags.length", Integer.class));
+        Assert.assertEquals("u1:7", spelFunction.getValue("#userId + ':' + #order.id", String.class));
+        Assert.assertNull(spelFunction.getValue("#none", String.class));
+        Assert.assertEquals("x", spelFunction.getValue("#userId = 'x'", String.class));
+        Assert.assertEquals("x", spelFunction.getValue("#userId", String.class));
+
+        Assert.assertEquals(
+            Long.valueOf(8), SpelUtil.getValue("#order.id + 1", method, new Object[]{null, new TestOrder(7L, null)}, Long.class)
+        );
+    }
+
+    @Test
+    public void testPropertyPath() throws NoSuchMethodException {
+        Method method = SpelUtilTest.class.getDeclaredMethod("sample", String.class, TestOrder.class, String[].class);
+        Object[][] argsList = {
+            {"u1", new TestOrder(7L, "snail"), new String[]{"a", "b"}},
+            {null, null, null},
+            {"u2", new TestOrder(null, null), new String[0]}
+        };
+        String[] expressions = {
+            "#userId", "#p1.id", "#order.name", "#order.name.length", "#order.name.bytes.length", "#tags.length",
+            "#order.missing", "#order.class.simpleName", " #a1.id ", "#none"
+        };
+        Class<?>[] valueClasses = {Object.class, String.class, Long.class, Optional.class};
+        SpelExpressionParser parser = new SpelExpressionParser();
+        for (Object[] args : argsList) {
+            for (String expression : expressions) {
+                Assert.assertNotNull(SpelUtil.getCachedExpression(expression).getPropertyPath());
+                for (Class<?> valueClass : valueClasses) {
+                    Object expected;
+                    try {
+                        expected = parser.parseExpression(expression).getValue(
+                            new MethodBasedEvaluationContext(TypedValue.NULL, method, args, new DefaultParameterNameDiscoverer()),
+                            valueClass
+                        );
+                    } catch (EvaluationException e) {
+                        expected = e.getClass();
+                    }
+                    Object actual;
+                    try {
+                        actual = SpelUtil.getValue(expression, method, args, valueClass);
+                    } catch (EvaluationException e) {
+                        actual = e.getClass();
+                    }
+                    if (expected instanceof Class && SpelEvaluationException.class.isAssignableFrom((Class<?>) expected)) {
+                        expected = null;
+                    }
+                    Assert.assertEquals(expression + " -> " + valueClass, expected, actual);
+                }
+            }
+        }
+        Assert.assertNull(SpelUtil.getCachedExpression("#order.id + 1").getPropertyPath());
+        Assert.assertNull(SpelUtil.getCachedExpression("#root.id").getPropertyPath());
+    }
+
+    @Test
+    public void testExpressionSet() throws NoSuchMethodException {
+        Method method = SpelUtilTest.class.getDeclaredMethod("sample", String.class, TestOrder.class, String[].class);
+        SpelExpressionSet expressionSet = SpelExpressionSet.builder()
+            .add("'order:' + #order.id", String.class)
+            .add("#order.id > 5", Boolean.class)
+            .add("", String.class)
+            .add("#tags.length", Integer.class)
+            .add("#none.id", Object.class)
+            .build();
+
+        SpelUtil.SpelFunction spelFunction = SpelUtil.generateSpelFunction(
+            method, new Object[]{"u1", new TestOrder(7L, "snail"), new String[]{"a"}}
+        );
+        Object[] values = spelFunction.getValues(expressionSet);
+        System.out.println(Arrays.toString(values));
+        Assert.assertArrayEquals(new Object[]{"order:7", true, null, 1, null}, values);
+
+//        自定义的SpelFunction 逐个解析
+        SpelUtil.SpelFunction customFunction = spelFunction::getValue;
+        Assert.assertArrayEquals(values, customFunction.getValues(expressionSet));
+    }
+
+    @Test
+    public void testBulkValues() {
+        List<TestOrder> orders = new ArrayList<>();
+        for (long i = 0; i < 5000; i++) {
+            orders.add(new TestOrder(i, i % 3 == 0 ? null : "n" + i));
+        }
+        List<Boolean> sequential = SpelUtil.getValues("id % 2 == 0 and name != null", orders, Boolean.class);
+        List<Boolean> parallel = SpelUtil.getValues("id % 2 == 0 and name != null", orders.stream(), Boolean.class, 1000);
+        Assert.assertEquals(sequential, parallel);
+        for (int i = 0; i < orders.size(); i++) {
+            Assert.assertEquals(i % 2 == 0 && i % 3 != 0, sequential.get(i));
+        }
+
+        List<Map<String, Object>> variableMaps = new ArrayList<>();
+        for (TestOrder order : orders) {
+            variableMaps.add(Collections.singletonMap("order", order));
+        }
+        List<Integer> lengths = SpelUtil.getValuesFromVariables("#order.name.length()", variableMaps, Integer.class, 1000);
+        Assert.assertNull(lengths.get(0));
+        Assert.assertEquals(Integer.valueOf(2), lengths.get(1));
+        Assert.assertEquals(Integer.valueOf(5), lengths.get(4999));
+    }
+
+    @Test
+    public void testCondition() throws NoSuchMethodException {
+        Method method = SpelUtilTest.class.getDeclaredMethod("sample", String.class, TestOrder.class, String[].class);
+        Object[] args = {"u1", new TestOrder(7L, "snail"), new String[0]};
+        Supplier<Object[]> failSupplier = () -> {
+            throw new AssertionError("常量condition不应获取入参");
+        };
+
+        Assert.assertNull(SpelUtil.generateSpelFunctionWithCondition(method, failSupplier, " "));
+        Assert.assertNull(SpelUtil.generateSpelFunctionWithCondition(method, failSupplier, "false"));
+        Assert.assertNull(SpelUtil.generateSpelFunctionWithCondition(method, failSupplier, "null"));
+        Assert.assertNull(SpelUtil.generateSpelFunctionWithCondition(method, failSupplier, "1"));
+        Assert.assertNotNull(SpelUtil.generateSpelFunctionWithCondition(method, args, "'true'"));
+
+        Assert.assertNull(SpelUtil.generateSpelFunctionWithCondition(method, args, "#order.id > 10"));
+        Assert.assertNull(SpelUtil.generateSpelFunctionWithCondition(method, args, "#none.id > 10"));
+        SpelUtil.SpelFunction spelFunction = SpelUtil.generateSpelFunctionWithCondition(method, args, "#order.id > 5");
+        Assert.assertNotNull(spelFunction);
+        Assert.assertEquals("snail", spelFunction.getValue("#order.name", String.class));
+    }
+
+    @Test
+    public void testContextProfile() {
+        Map<String, Object> variableMap = new HashMap<>();
+        variableMap.put("order", new TestOrder(7L, "snail"));
+        for (SpelContextProfile profile : SpelContextProfile.values()) {
+            SpelUtil.SpelFunction spelFunction = SpelUtil.generateSpelFunction(variableMap, profile);
+            Assert.assertEquals(Long.valueOf(7), spelFunction.getValue("#order.id", Long.class));
+            Assert.assertEquals("order:7", spelFunction.getValue("'order:' + #order.id", String.class));
+            if (profile == SpelContextProfile.READ_ONLY) {
+//                只读数据绑定不能调用方法
+                Assert.assertNull(spelFunction.getValue("#order.getName().toUpperCase()", String.class));
+                continue;
+            }
+            for (int i = 0; i < 3; i++) {
+                Assert.assertEquals("SNAIL", spelFunction.getValue("#order.getName().toUpperCase()", String.class));
+                Assert.assertEquals(Integer.valueOf(7), spelFunction.getValue("T(Math).max(#order.id.intValue(), 3)", Integer.class));
+            }
+        }
+    }
+
+    @Test
+    public void testCompilerMode() {
+        SpelUtil.setCompilerMode(SpelCompilerMode.IMMEDIATE);
+
+        SpelUtil.SpelFunction spelFunction = SpelUtil.generateSpelFunction(Collections.singletonMap("str", "snail"));
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(Integer.valueOf(5), spelFunction.getValue("#str.length()", Integer.class));
+        }
+        System.out.println(SpelUtil.getCompileStatus("#str.length()"));
+        Assert.assertEquals(SpelCompileStatus.COMPILED, SpelUtil.getCompileStatus("#str.length()"));
+
+//        投影无法编译 单独降级为解释执行
+        Map<String, Object> variableMap = new HashMap<>();
+        variableMap.put("list", Arrays.asList("a", "bb"));
+        spelFunction = SpelUtil.generateSpelFunction(variableMap);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(Arrays.asList(1, 2), spelFunction.getValue("#list.![length()]", Object.class));
+        }
+        System.out.println(SpelUtil.getCompileFallbacks());
+        Assert.assertEquals(SpelCompileStatus.FALLBACK, SpelUtil.getCompileStatus("#list.![length()]"));
+    }
+
+    @Test
+    public void testCompiledFallback() {
+        SpelUtil.setCompilerMode(SpelCompilerMode.IMMEDIATE);
+
+        SpelUtil.SpelFunction spelFunction = SpelUtil.generateSpelFunction(Collections.singletonMap("str", "snail"));
+        spelFunction.getValue("#str.length()", Integer.class);
+        spelFunction.getValue("#str.length()", Integer.class);
+
+//        编译后的字节码按String强转 换成StringBuilder后执行失败, 降级后仍能得到正确结果
+        spelFunction = SpelUtil.generateSpelFunction(Collections.singletonMap("str", new StringBuilder("snail!")));
+        Assert.assertEquals(Integer.valueOf(6), spelFunction.getValue("#str.length()", Integer.class));
+        Assert.assertEquals(SpelCompileStatus.FALLBACK, SpelUtil.getCompileStatus("#str.length()"));
+        System.out.println(SpelUtil.getCompileFallbacks());
+    }
+
+    @Test
+    public void testMetrics() {
+        SpelMetrics metrics = new SpelMetrics();
+        SpelUtil.addEvaluationListener(metrics);
+        try {
+            SpelUtil.SpelFunction spelFunction = SpelUtil.generateSpelFunction(Collections.singletonMap("num", 2));
+            for (int i = 0; i < 10; i++) {
+                Assert.assertEquals(Integer.valueOf(6), spelFunction.getValue("#num * 3", Integer.class));
+            }
+            Assert.assertNull(spelFunction.getValue("#num.noSuchMethod()", Integer.class));
+        } finally {
+            SpelUtil.removeEvaluationListener(metrics);
+        }
+
+        SpelMetrics.ExpressionMetrics multiply = metrics.getMetrics("#num * 3");
+        System.out.println(multiply);
+        Assert.assertEquals(10, multiply.getEvaluationCount());
+        Assert.assertEquals(0, multiply.getFailureCount());
+        Assert.assertTrue(multiply.getLatencyPercentileNanos(0.5) <= multiply.getMaxNanos());
+
+        SpelMetrics.ExpressionMetrics failure = metrics.getMetrics("#num.noSuchMethod()");
+        Assert.assertEquals(1, failure.getFailureCount());
+        Assert.assertTrue(failure.getLastFailure() instanceof SpelEvaluationException);
+        Assert.assertTrue(metrics.getCacheHitCount() >= 9);
+
+//        移除后不再统计
+        SpelUtil.generateSpelFunction(Collections.singletonMap("num", 2)).getValue("#num * 3", Integer.class);
+        Assert.assertEquals(10, multiply.getEvaluationCount());
+    }
+
+    @Test
+    public void testTemplate() throws NoSuchMethodException {
+        Method method = SpelUtilTest.class.getDeclaredMethod("sample", String.class, TestOrder.class, String[].class);
+        Object[] args = {"u1", new TestOrder(7L, "snail"), new String[]{"a", "b"}};
+
+        Assert.assertEquals("order:u1:7", SpelUtil.getTemplateValue("order:#{#userId}:#{#order.id}", method, args));
+        Assert.assertEquals("u17", SpelUtil.getTemplateValue("#{#userId}#{#order.id}", method, args));
+        Assert.assertEquals("order:8:2", SpelUtil.getTemplateValue("order:#{#order.id + 1}:#{#tags.length}", method, args));
+        Assert.assertEquals("plain", SpelUtil.getTemplateValue("plain", method, args));
+//        null的部分不输出, 和spring的模板一致
+        Assert.assertEquals("order::", SpelUtil.getTemplateValue("order:#{#none}:#{#none}", method, args));
+        Assert.assertNull(SpelUtil.getTemplateValue("order:#{#order.missing}", method, args));
+        Assert.assertEquals("order:", SpelUtil.getTemplateValue("order:#{#order?.name}", method, new Object[]{null, null, null}));
+
+        TemplateExpression template = SpelUtil.getCachedTemplate("order:#{#userId}:#{#order.id}").getTemplate();
+        Assert.assertEquals(2, template.getPartCount());
+        Assert.assertNotNull(template.getPart(0).getPropertyPath());
+        Assert.assertNotNull(template.getPart(1).getPropertyPath());
+
+//        同一个字符串作为模板和普通表达式分别缓存
+        Map<String, Object> variableMap = Collections.singletonMap("id", 7);
+        SpelUtil.SpelFunction spelFunction = SpelUtil.generateSpelFunction(variableMap);
+        Assert.assertEquals("7", spelFunction.getValue("#id", String.class));
+        Assert.assertEquals("#id", spelFunction.getTemplateValue("#id"));
+        Assert.assertEquals("id:7", spelFunction.getTemplateValue("id:#{#id}"));
+        Assert.assertEquals(0, SpelUtil.getCachedTemplate("#id").getTemplate().getPartCount());
+        Assert.assertNull(SpelUtil.getCachedExpression("#id").getTemplate());
+
+//        自定义的SpelFunction 逐个部分解析
+        SpelUtil.SpelFunction customFunction = spelFunction::getValue;
+        Assert.assertEquals("id:7", customFunction.getTemplateValue("id:#{#id}"));
+    }
+
+    private void sample(String userId, TestOrder order, String... tags) {
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class TestOrder {
+        private Long id;
+        private String name;
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.snail.spel.aspect;
+
+import com.snail.spel.SpelExpressionSet;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel.aspect
+ * @Description:
+ * @date: 2026/10/18
+ */
+@RunWith(JUnit4.class)
+public class AspectSpelUtilTest {
+
+    @Test
+    public void testGetValues() {
+        ValuesAspect aspect = new ValuesAspect();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new TestService());
+        proxyFactory.addAspect(aspect);
+        TestService service = proxyFactory.getProxy();
+
+        service.lockUser("u1");
+        service.lockUser(null);
+        service.lockOrder(7L);
+        service.lockNone();
+
+        Assert.assertArrayEquals(new Object[]{"user:u1", true}, aspect.values.get(0));
+        Assert.assertArrayEquals(new Object[]{"user:null", false}, aspect.values.get(1));
+        Assert.assertArrayEquals(new Object[]{"order:7", null}, aspect.values.get(2));
+        Assert.assertNull(aspect.values.get(3));
+
+//        每个注解处只解析一次, 之后返回同一个表达式组
+        Assert.assertEquals(2, aspect.parseCount.get());
+        Assert.assertSame(aspect.expressionSets.get(0), aspect.expressionSets.get(1));
+        Assert.assertNotSame(aspect.expressionSets.get(0), aspect.expressionSets.get(2));
+        Assert.assertNull(aspect.expressionSets.get(3));
+    }
+
+    @Aspect
+    public static class ValuesAspect {
+
+        private final AtomicInteger parseCount = new AtomicInteger();
+
+        private final List<SpelExpressionSet> expressionSets = new ArrayList<>();
+
+        private final List<Object[]> values = new ArrayList<>();
+
+        @Around("execution(* lock*(..))")
+        public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+            expressionSets.add(AspectSpelUtil.getExpressionSet(joinPoint, TestLock.class, this::parse));
+            values.add(AspectSpelUtil.getValues(joinPoint, TestLock.class, this::parse));
+            return joinPoint.proceed();
+        }
+
+        private SpelExpressionSet parse(TestLock lock) {
+            parseCount.incrementAndGet();
+            return SpelExpressionSet.builder()
+                .add(lock.key(), String.class)
+                .add(lock.condition(), Boolean.class)
+                .build();
+        }
+    }
+
+    @Target(ElementType.METHOD)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface TestLock {
+        String key();
+
+        String condition() default "";
+    }
+
+    public static class TestService {
+
+        @TestLock(key = "'user:' + #userId", condition = "#userId != null")
+        public void lockUser(String userId) {
+        }
+
+        @TestLock(key = "'order:' + #orderId")
+        public void lockOrder(Long orderId) {
+        }
+
+        public void lockNone() {
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.snail.spel.aspect;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * @version V1.0
+ * @author: csz
+ * @Title
+ * @Package: com.snail.spel.aspect
+ * @Description:
+ * @date: 2026/10/18
+ */
+@RunWith(JUnit4.class)
+public class SpelWarmUpRegistryTest {
+
+    @Test
+    public void testScanPackage() {
+        SpelWarmUpRegistry.SpelWarmUpReport report = new SpelWarmUpRegistry()
+            .register(TestLock.class, lock -> new String[]{lock.key(), lock.condition()})
+            .warmUpIterations(10)
+            .scan("com.snail.spel.aspect");
+        System.out.println(report);
+        Assert.assertEquals(2, report.getMethodCount());
+        Assert.assertEquals(3, report.getExpressionCount());
+        Assert.assertEquals(1, report.getInvalidExpressions().size());
+        Assert.assertEquals("'order:' + #orderId +", report.getInvalidExpressions().get(0).getExpression());
+    }
+
+    @Test
+    public void testScanBeanFactory() {
+        GenericApplicationContext applicationContext = new GenericApplicationContext();
+        applicationContext.registerBean(TestService.class);
+        applicationContext.refresh();
+
+        SpelWarmUpRegistry.SpelWarmUpReport report = new SpelWarmUpRegistry()
+            .register(TestLock.class, lock -> new String[]{lock.key(), lock.condition()})
+            .scan(applicationContext);
+        System.out.println(report);
+        Assert.assertEquals(2, report.getMethodCount());
+        Assert.assertFalse(report.isValid());
+    }
+
+    @Target(ElementType.METHOD)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface TestLock {
+        String key();
+
+        String condition() default "";
+    }
+
+    public static class TestService {
+
+        @TestLock(key = "'user:' + #userId", condition = "#userId != null")
+        public void lockUser(String userId) {
+        }
+
+        @TestLock(key = "'order:' + #orderId +")
+        public void lockOrder(Long orderId) {
+        }
+    }
+
+}